@@ -0,0 +1,27 @@
+package com.residentia.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the ResponseEntity returned by a GET controller method.
+ *
+ * Entries are keyed by request path, sorted query parameters and the caller's role,
+ * live for ttlSeconds and are dropped early when their region is invalidated.
+ * Only 2xx responses with an in-memory body are stored; streamed bodies pass through.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponse {
+
+    /**
+     * Invalidation group, e.g. ResponseCacheService.LISTINGS
+     */
+    String region();
+
+    long ttlSeconds() default 60;
+}
@@ -0,0 +1,101 @@
+package com.residentia.aspect;
+
+import com.residentia.controller.ConditionalResponses;
+import com.residentia.dto.ResourceVersion;
+import com.residentia.service.ResponseCacheService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Serves @CachedResponse methods from ResponseCacheService.
+ *
+ * The key ignores conditional headers, so a request carrying If-None-Match or
+ * If-Modified-Since is checked against the validators of the response it is
+ * served, cached or not, and gets 304 when its copy is current.
+ */
+@Aspect
+@Component
+@Slf4j
+public class ResponseCacheAspect {
+
+    @Autowired
+    private ResponseCacheService responseCacheService;
+
+    @Around("@annotation(cachedResponse)")
+    public Object cache(ProceedingJoinPoint joinPoint, CachedResponse cachedResponse) throws Throwable {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null || !"GET".equals(attributes.getRequest().getMethod())) {
+            return joinPoint.proceed();
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String key = cacheKey(request);
+        ResponseEntity<?> response = responseCacheService.get(cachedResponse.region(), key, cachedResponse.ttlSeconds(), () -> {
+            Object result;
+            try {
+                result = joinPoint.proceed();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            if (!(result instanceof ResponseEntity<?> loaded)) {
+                throw new IllegalStateException("@CachedResponse method must return ResponseEntity: "
+                        + joinPoint.getSignature());
+            }
+            return loaded;
+        });
+        if (response.getStatusCode().is2xxSuccessful()) {
+            ResourceVersion version = ConditionalResponses.versionOf(response);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Path, then parameters sorted by name with blank values dropped, then the caller's role
+     */
+    static String cacheKey(HttpServletRequest request) {
+        Map<String, String> parameters = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> {
+            String joined = Arrays.stream(values)
+                    .map(String::trim)
+                    .filter(value -> !value.isEmpty())
+                    .collect(Collectors.joining(","));
+            if (!joined.isEmpty()) {
+                parameters.put(name, joined);
+            }
+        });
+        return request.getRequestURI() + "?" + parameters + "|" + role();
+    }
+
+    private static String role() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return "ANONYMOUS";
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+}
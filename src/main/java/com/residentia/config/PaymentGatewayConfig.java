@@ -0,0 +1,79 @@
+package com.residentia.config;
+
+import com.residentia.service.FakePaymentGateway;
+import com.residentia.service.GatewayCircuitBreaker;
+import com.residentia.service.GuardedPaymentGateway;
+import com.residentia.service.PaymentGateway;
+import com.residentia.service.RazorpayHttpGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the payment gateway
+ *
+ * payment.gateway.mode selects Razorpay (default) or the in-process fake used for
+ * offline load tests. Either one is wrapped with timeouts, a bulkhead and a circuit
+ * breaker, configured under payment.gateway in application.yml.
+ */
+@Slf4j
+@Configuration
+public class PaymentGatewayConfig {
+
+    @Value("${razorpay.key.id:rzp_test_S8v64jsUOHFb42}")
+    private String keyId;
+
+    @Value("${razorpay.key.secret:0kQhTEbbiZpkAXgnOMIST0jj}")
+    private String keySecret;
+
+    @Value("${payment.gateway.mode:razorpay}")
+    private String mode;
+
+    @Value("${payment.gateway.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${payment.gateway.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${payment.gateway.call-timeout-ms:8000}")
+    private long callTimeoutMs;
+
+    @Value("${payment.gateway.bulkhead.threads:16}")
+    private int bulkheadThreads;
+
+    @Value("${payment.gateway.bulkhead.queue:32}")
+    private int bulkheadQueue;
+
+    @Value("${payment.gateway.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${payment.gateway.circuit-breaker.open-ms:30000}")
+    private long openMs;
+
+    @Value("${payment.gateway.fake.latency-ms:150}")
+    private long fakeLatencyMs;
+
+    @Value("${payment.gateway.fake.jitter-ms:100}")
+    private long fakeJitterMs;
+
+    @Value("${payment.gateway.fake.failure-rate:0.0}")
+    private double fakeFailureRate;
+
+    @Bean(destroyMethod = "close")
+    public GuardedPaymentGateway paymentGateway() {
+        PaymentGateway gateway;
+        if ("fake".equalsIgnoreCase(mode)) {
+            log.warn("Using the in-process FAKE payment gateway; no real payments will be taken");
+            gateway = new FakePaymentGateway(keyId, keySecret, Duration.ofMillis(fakeLatencyMs),
+                    Duration.ofMillis(fakeJitterMs), fakeFailureRate);
+        } else {
+            gateway = new RazorpayHttpGateway(keyId, keySecret, Duration.ofMillis(connectTimeoutMs),
+                    Duration.ofMillis(readTimeoutMs));
+        }
+        return new GuardedPaymentGateway(gateway, bulkheadThreads, bulkheadQueue, Duration.ofMillis(callTimeoutMs),
+                new GatewayCircuitBreaker(failureThreshold, Duration.ofMillis(openMs)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.residentia.config;
 
 import com.residentia.security.JwtTokenProvider;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -67,14 +68,20 @@ public class SecurityConfig {
                 .requestMatchers("/api/owner/register", "/api/owner/login").permitAll()
                 // Swagger/API documentation
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**").permitAll()
+                // Payment gateway webhooks (authenticated by their HMAC signature)
+                .requestMatchers(HttpMethod.POST, "/api/payment/webhook").permitAll()
                 // Test endpoints
                 .requestMatchers("/api/test/**").permitAll()
+                // Async dispatch of streamed responses (the original request was already authorized)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // CORS preflight
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 // Public client endpoints (property browsing without login)
                 .requestMatchers(HttpMethod.GET, "/api/client/properties").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/client/properties/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/client/search").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/client/search/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/client/suggest").permitAll()
                 // ===== PROTECTED ENDPOINTS - AUTH REQUIRED =====
                 .requestMatchers("/api/owner/**").authenticated()
                 .requestMatchers("/api/admin/**").authenticated()
@@ -105,6 +112,7 @@ public class SecurityConfig {
         ));
         
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("X-Corrected-City", "ETag", "Last-Modified", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
@@ -1,17 +1,18 @@
 package com.residentia.controller;
 
-import java.util.List;
-
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.residentia.entity.Booking;
 import com.residentia.service.BookingService;
+import com.residentia.service.JsonStreamingService;
 
 @RestController
 @RequestMapping("/api/admin/pg-bookings")
@@ -19,13 +20,20 @@ import com.residentia.service.BookingService;
 public class AdminPgBookingController {
 
     private final BookingService service;
+    private final JsonStreamingService jsonStreamingService;
 
-    public AdminPgBookingController(BookingService service) {
+    public AdminPgBookingController(BookingService service, JsonStreamingService jsonStreamingService) {
         this.service = service;
+        this.jsonStreamingService = jsonStreamingService;
     }
 
     @GetMapping
-    public ResponseEntity<List<com.residentia.dto.BookingDTO>> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(defaultValue = "false") boolean stream) {
+        if (stream) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(jsonStreamingService.streamFromDatabase(service::streamAllBookings));
+        }
         return ResponseEntity.ok(service.getAllBookings());
     }
     
@@ -1,17 +1,20 @@
 package com.residentia.controller;
 
-import java.util.List;
-
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.residentia.entity.Property;
 import com.residentia.repository.PropertyRepository;
+import com.residentia.service.JsonStreamingService;
+import com.residentia.service.OptimisticRetry;
+import com.residentia.service.PropertyService;
 
 @RestController
 @RequestMapping("/api/admin/pgs")
@@ -19,30 +22,37 @@ import com.residentia.repository.PropertyRepository;
 public class AdminPgController {
 
     private final PropertyRepository propertyRepository;
+    private final PropertyService propertyService;
+    private final JsonStreamingService jsonStreamingService;
 
-    public AdminPgController(PropertyRepository propertyRepository) {
+    public AdminPgController(PropertyRepository propertyRepository, PropertyService propertyService,
+                             JsonStreamingService jsonStreamingService) {
         this.propertyRepository = propertyRepository;
+        this.propertyService = propertyService;
+        this.jsonStreamingService = jsonStreamingService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Property>> getAll() { 
-        return ResponseEntity.ok(propertyRepository.findAll());
+    public ResponseEntity<?> getAll(@RequestParam(defaultValue = "false") boolean stream) { 
+        if (stream) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(jsonStreamingService.streamFromDatabase(propertyRepository::streamAllCards));
+        }
+        return ResponseEntity.ok(propertyRepository.findAllCards());
     }
     
+    // Bed recounts may bump the listing's version while its status is changed
     @PutMapping("/{id}/approve")
     public ResponseEntity<Property> approve(@PathVariable Long id) { 
-        Property property = propertyRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Property not found"));
-        property.setStatus("ACTIVE");
-        return ResponseEntity.ok(propertyRepository.save(property));
+        return ResponseEntity.ok(OptimisticRetry.run("Approve listing " + id,
+                () -> propertyService.updateStatus(id, "ACTIVE")));
     }
     
     @PutMapping("/{id}/reject")
     public ResponseEntity<Property> reject(@PathVariable Long id) { 
-        Property property = propertyRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Property not found"));
-        property.setStatus("REJECTED");
-        return ResponseEntity.ok(propertyRepository.save(property));
+        return ResponseEntity.ok(OptimisticRetry.run("Reject listing " + id,
+                () -> propertyService.updateStatus(id, "REJECTED")));
     }
 }
 
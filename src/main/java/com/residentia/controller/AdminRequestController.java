@@ -14,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import com.residentia.entity.Request;
 import com.residentia.repository.RequestRepository;
 import com.residentia.service.AdminRequestService;
+import com.residentia.service.OptimisticRetry;
 
 @Slf4j
 @RestController
@@ -40,7 +41,9 @@ public class AdminRequestController {
     public ResponseEntity<Request> approve(@PathVariable Integer id) { 
         log.info("Approving change request: {}", id);
         try {
-            Request approvedRequest = service.approveChangeRequest(id);
+            // Bed recounts may bump the listing's version while the changes are applied
+            Request approvedRequest = OptimisticRetry.run("Approve change request " + id,
+                    () -> service.approveChangeRequest(id));
             log.info("Change request {} approved successfully. Property changes applied.", id);
             return ResponseEntity.ok(approvedRequest);
         } catch (Exception e) {
@@ -1,7 +1,9 @@
 package com.residentia.controller;
 
 import com.residentia.dto.BookingDTO;
+import com.residentia.dto.ResourceVersion;
 import com.residentia.service.BookingService;
+import com.residentia.service.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,6 +27,9 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     @GetMapping("/bookings")
     @Operation(summary = "Get all bookings of owner", description = "Retrieve all bookings for properties owned by logged-in owner")
     @ApiResponse(responseCode = "200", description = "Bookings retrieved successfully")
@@ -34,8 +39,12 @@ public class BookingController {
             if (ownerId == null) {
                 throw new RuntimeException("Owner ID not found in request");
             }
+            ResourceVersion version = resourceVersionService.ownerBookings(ownerId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
             List<BookingDTO> bookings = bookingService.getOwnerBookings(ownerId);
-            return ResponseEntity.ok(bookings);
+            return ConditionalResponses.ok(version).body(bookings);
         } catch (Exception e) {
             logger.error("Failed to fetch bookings: {}", e.getMessage());
             throw e;
@@ -46,10 +55,14 @@ public class BookingController {
     @Operation(summary = "Get booking by ID", description = "Retrieve specific booking details")
     @ApiResponse(responseCode = "200", description = "Booking retrieved successfully")
     @ApiResponse(responseCode = "404", description = "Booking not found")
-    public ResponseEntity<?> getBookingById(@PathVariable Long bookingId) {
+    public ResponseEntity<?> getBookingById(@PathVariable Long bookingId, HttpServletRequest request) {
         try {
+            ResourceVersion version = resourceVersionService.booking(bookingId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
             BookingDTO booking = bookingService.getBookingById(bookingId);
-            return ResponseEntity.ok(booking);
+            return ConditionalResponses.ok(version).body(booking);
         } catch (Exception e) {
             logger.error("Failed to fetch booking: {}", e.getMessage());
             throw e;
@@ -59,10 +72,14 @@ public class BookingController {
     @GetMapping("/property/{propertyId}/bookings")
     @Operation(summary = "Get bookings for a property", description = "Retrieve all bookings for a specific property")
     @ApiResponse(responseCode = "200", description = "Bookings retrieved successfully")
-    public ResponseEntity<?> getPropertyBookings(@PathVariable Long propertyId) {
+    public ResponseEntity<?> getPropertyBookings(@PathVariable Long propertyId, HttpServletRequest request) {
         try {
+            ResourceVersion version = resourceVersionService.propertyBookings(propertyId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
             List<BookingDTO> bookings = bookingService.getPropertyBookings(propertyId);
-            return ResponseEntity.ok(bookings);
+            return ConditionalResponses.ok(version).body(bookings);
         } catch (Exception e) {
             logger.error("Failed to fetch property bookings: {}", e.getMessage());
             throw e;
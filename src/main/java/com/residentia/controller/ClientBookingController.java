@@ -1,11 +1,15 @@
 package com.residentia.controller;
 
 import com.residentia.dto.BookingDTO;
+import com.residentia.dto.ResourceVersion;
 import com.residentia.entity.Booking;
+import com.residentia.exception.BookingCapacityException;
 import com.residentia.entity.RegularUser;
 import com.residentia.logging.ActionLogger;
 import com.residentia.repository.RegularUserRepository;
 import com.residentia.service.BookingService;
+import com.residentia.service.IdempotencyService;
+import com.residentia.service.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -33,12 +37,25 @@ public class ClientBookingController {
     @Autowired
     private ActionLogger actionLogger;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/properties/{propertyId}/bookings")
     @Operation(summary = "Create booking for a property")
     public ResponseEntity<?> createBooking(@PathVariable Long propertyId,
                                            @RequestBody BookingDTO bookingDTO,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
                                            HttpServletRequest request) {
         String email = (String) request.getAttribute("email");
+        // Fingerprinted before the tenant fields are filled in below
+        return idempotencyService.execute("CREATE_BOOKING", email, idempotencyKey, List.of(propertyId, bookingDTO),
+                () -> doCreateBooking(propertyId, bookingDTO, email));
+    }
+
+    private ResponseEntity<?> doCreateBooking(Long propertyId, BookingDTO bookingDTO, String email) {
         try {
             if (email == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication required");
@@ -69,6 +86,9 @@ public class ClientBookingController {
             BookingDTO response = bookingService.getBookingById(booking.getId());
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (BookingCapacityException e) {
+            log.info("Booking rejected for property {}: {}", propertyId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             actionLogger.logError("CLIENT", email != null ? email : "UNKNOWN", "CREATE_BOOKING", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
@@ -83,9 +103,13 @@ public class ClientBookingController {
                 log.warn("⚠️ No email found in request attributes");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication required");
             }
+            ResourceVersion version = resourceVersionService.clientBookings(email);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
             List<BookingDTO> bookings = bookingService.getBookingsByClientEmail(email);
             log.info("📋 Returning {} bookings for {}", bookings.size(), email);
-            return ResponseEntity.ok(bookings);
+            return ConditionalResponses.ok(version).body(bookings);
         } catch (Exception e) {
             log.error("❌ Error fetching client bookings: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
@@ -1,48 +1,180 @@
 package com.residentia.controller;
 
+import com.residentia.aspect.CachedResponse;
+import com.residentia.dto.PropertyChangesResponse;
 import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.PropertySearchCriteria;
+import com.residentia.dto.PropertySearchResponse;
+import com.residentia.dto.ResourceVersion;
+import com.residentia.dto.SuggestionDTO;
+import com.residentia.exception.CursorExpiredException;
 import com.residentia.service.ClientService;
+import com.residentia.service.ListingJsonCache;
+import com.residentia.service.PropertyChangeLogService;
+import com.residentia.service.PropertySearchService;
+import com.residentia.service.ResourceVersionService;
+import com.residentia.service.ResponseCacheService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/client")
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = ClientController.CORRECTED_CITY_HEADER)
 public class ClientController {
 
+    public static final String CORRECTED_CITY_HEADER = "X-Corrected-City";
+
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private PropertySearchService propertySearchService;
+
+    @Autowired
+    private ListingJsonCache listingJsonCache;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private PropertyChangeLogService propertyChangeLogService;
+
     /**
      * Get all available properties
+     * The body is assembled from pre-serialized cards; with stream=true it is written
+     * to the response card by card instead of as one buffer.
      */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
     @GetMapping("/properties")
-    public ResponseEntity<List<PropertyDTO>> getAllProperties() {
+    public ResponseEntity<?> getAllProperties(@RequestParam(defaultValue = "false") boolean stream) {
         log.info("GET /api/client/properties - Fetching all properties");
         try {
             List<PropertyDTO> properties = clientService.getAllAvailableProperties();
             log.info("Returning {} properties", properties.size());
-            return ResponseEntity.ok(properties);
+            if (stream) {
+                StreamingResponseBody body = out -> listingJsonCache.writeJsonArray(out, properties);
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body);
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(listingJsonCache.toJsonArray(properties));
         } catch (Exception e) {
             log.error("Error fetching properties: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(null);
         }
     }
 
+    /**
+     * Listings changed since a cursor, for apps keeping a local copy of the catalog.
+     * Without since, returns the cursor to start from (fetch it before /properties).
+     * 410 means the cursor is too old and the app must download the catalog again.
+     */
+    @GetMapping("/properties/changes")
+    public ResponseEntity<PropertyChangesResponse> getPropertyChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /api/client/properties/changes?since={}", since);
+        try {
+            return ResponseEntity.ok(propertyChangeLogService.changesSince(since, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid change request: {}", e.getMessage());
+            return ResponseEntity.status(400).body(null);
+        } catch (CursorExpiredException e) {
+            log.info("Expired sync cursor: {}", e.getMessage());
+            return ResponseEntity.status(410).body(null);
+        } catch (Exception e) {
+            log.error("Error reading property changes: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    /**
+     * Composite search: any combination of free text (q), city, budget range, sharing
+     * type, food, availability and stay dates (checkIn/checkOut, yyyy-MM-dd), paged with
+     * the nextCursor of the previous response
+     */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
+    @GetMapping("/search")
+    public ResponseEntity<PropertySearchResponse> search(PropertySearchCriteria criteria) {
+        log.info("GET /api/client/search - {}", criteria);
+        try {
+            return ResponseEntity.ok(propertySearchService.search(criteria));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid search request: {}", e.getMessage());
+            return ResponseEntity.status(400).body(null);
+        } catch (Exception e) {
+            log.error("Error searching properties: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    /**
+     * Listings within radiusKm (default 3, max 50) of a point, nearest first;
+     * combinable with the budget, food, sharing type and availability filters
+     */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
+    @GetMapping("/search/nearby")
+    public ResponseEntity<PropertySearchResponse> searchNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "3") double radiusKm,
+            PropertySearchCriteria criteria) {
+        log.info("GET /api/client/search/nearby?lat={}&lon={}&radiusKm={} - {}", lat, lon, radiusKm, criteria);
+        try {
+            return ResponseEntity.ok(propertySearchService.searchNearby(lat, lon, radiusKm, criteria));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid nearby search request: {}", e.getMessage());
+            return ResponseEntity.status(400).body(null);
+        } catch (Exception e) {
+            log.error("Error in nearby search: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    /**
+     * Autocomplete for the search box: cities, localities and property names starting
+     * with (or containing a word starting with) prefix, most listings first
+     */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("GET /api/client/suggest?prefix={}", prefix);
+        try {
+            return ResponseEntity.ok(clientService.suggest(prefix, limit));
+        } catch (Exception e) {
+            log.error("Error building suggestions: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
     /**
      * Search properties by city
      */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
     @GetMapping("/search/city")
     public ResponseEntity<List<PropertyDTO>> searchByCity(@RequestParam String city) {
         log.info("GET /api/client/search/city?city={}", city);
         try {
-            List<PropertyDTO> properties = clientService.searchPropertiesByCity(city);
-            return ResponseEntity.ok(properties);
+            String correctedCity = clientService.correctCity(city);
+            if (correctedCity == null) {
+                return ResponseEntity.ok(clientService.searchPropertiesByCity(city));
+            }
+            // The body stays a plain list, so the correction travels in a header
+            return ResponseEntity.ok()
+                    .header(CORRECTED_CITY_HEADER, correctedCity)
+                    .body(clientService.searchPropertiesByCity(correctedCity));
         } catch (Exception e) {
             log.error("Error searching by city: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(null);
@@ -52,6 +184,7 @@ public class ClientController {
     /**
      * Search properties by budget
      */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
     @GetMapping("/search/budget")
     public ResponseEntity<List<PropertyDTO>> searchByBudget(
             @RequestParam Integer minBudget,
@@ -69,6 +202,7 @@ public class ClientController {
     /**
      * Search properties by sharing type
      */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
     @GetMapping("/search/sharing")
     public ResponseEntity<List<PropertyDTO>> searchBySharingType(@RequestParam String sharingType) {
         log.info("GET /api/client/search/sharing?sharingType={}", sharingType);
@@ -84,6 +218,7 @@ public class ClientController {
     /**
      * Search properties with food included
      */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
     @GetMapping("/search/food")
     public ResponseEntity<List<PropertyDTO>> searchWithFood(@RequestParam Boolean foodIncluded) {
         log.info("GET /api/client/search/food?foodIncluded={}", foodIncluded);
@@ -99,12 +234,17 @@ public class ClientController {
     /**
      * Get property by ID
      */
+    @CachedResponse(region = ResponseCacheService.LISTINGS)
     @GetMapping("/properties/{propertyId}")
-    public ResponseEntity<PropertyDTO> getPropertyById(@PathVariable Long propertyId) {
+    public ResponseEntity<PropertyDTO> getPropertyById(@PathVariable Long propertyId, HttpServletRequest request) {
         log.info("GET /api/client/properties/{}", propertyId);
         try {
+            ResourceVersion version = resourceVersionService.property(propertyId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
             PropertyDTO property = clientService.getPropertyById(propertyId);
-            return ResponseEntity.ok(property);
+            return ConditionalResponses.ok(version).body(property);
         } catch (Exception e) {
             log.error("Error fetching property {}: {}", propertyId, e.getMessage(), e);
             return ResponseEntity.status(404).body(null);
@@ -0,0 +1,84 @@
+package com.residentia.controller;
+
+import com.residentia.dto.ResourceVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
+
+import java.util.List;
+
+/**
+ * Conditional GET helpers shared by the controllers.
+ *
+ * Controllers check the cheap version before loading anything and answer 304 when
+ * the client's copy is current; otherwise the body goes out with the same
+ * validators. The version is read before the body, so a concurrent write can at
+ * worst make a client download a body it could have reused, never keep a stale one.
+ *
+ * ResponseCacheAspect applies the same check to cached responses, using the
+ * validators stored with them.
+ */
+public final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * If-None-Match (weak comparison, as for GET) or, without it, If-Modified-Since
+     */
+    public static boolean isNotModified(HttpServletRequest request, ResourceVersion version) {
+        if (version == null) {
+            return false;
+        }
+        HttpHeaders headers = new ServletServerHttpRequest(request).getHeaders();
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            String current = opaque(version.getEtag());
+            return ifNoneMatch.stream().anyMatch(tag -> "*".equals(tag.trim()) || opaque(tag).equals(current));
+        }
+        long ifModifiedSince = headers.getIfModifiedSince();
+        // HTTP dates have second precision
+        return ifModifiedSince >= 0 && version.getLastModified() >= 0
+                && version.getLastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    public static <T> ResponseEntity<T> notModified(ResourceVersion version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+        validators(builder, version);
+        return builder.build();
+    }
+
+    static ResponseEntity.BodyBuilder ok(ResourceVersion version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        validators(builder, version);
+        return builder;
+    }
+
+    /**
+     * Validators a response was sent with, or null when it has no ETag
+     */
+    public static ResourceVersion versionOf(ResponseEntity<?> response) {
+        String etag = response.getHeaders().getETag();
+        if (etag == null) {
+            return null;
+        }
+        return new ResourceVersion(etag, response.getHeaders().getLastModified());
+    }
+
+    private static void validators(ResponseEntity.BodyBuilder builder, ResourceVersion version) {
+        if (version == null) {
+            return;
+        }
+        builder.eTag(version.getEtag());
+        if (version.getLastModified() >= 0) {
+            builder.lastModified(version.getLastModified());
+        }
+    }
+
+    private static String opaque(String etag) {
+        String tag = etag.trim();
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -2,25 +2,23 @@ package com.residentia.controller;
 
 import com.residentia.dto.BookingDTO;
 import com.residentia.entity.Booking;
+import com.residentia.exception.PaymentGatewayException;
+import com.residentia.exception.PaymentGatewayUnavailableException;
 import com.residentia.logging.ActionLogger;
 import com.residentia.repository.BookingRepository;
 import com.residentia.service.BookingService;
-import com.residentia.service.EmailService;
+import com.residentia.service.IdempotencyService;
+import com.residentia.service.PaymentGateway;
+import com.residentia.service.PaymentWebhookService;
+import com.residentia.service.RazorpayOrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
-
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,11 +30,8 @@ import java.util.Map;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class PaymentController {
 
-    @Value("${razorpay.key.id:rzp_test_S8v64jsUOHFb42}")
-    private String razorpayKeyId;
-
-    @Value("${razorpay.key.secret:0kQhTEbbiZpkAXgnOMIST0jj}")
-    private String razorpayKeySecret;
+    @Autowired
+    private PaymentGateway paymentGateway;
 
     @Autowired
     private BookingRepository bookingRepository;
@@ -48,56 +43,58 @@ public class PaymentController {
     private ActionLogger actionLogger;
 
     @Autowired
-    private EmailService emailService;
+    private IdempotencyService idempotencyService;
 
-    @PostMapping("/create-order/{bookingId}")
-    @Operation(summary = "Create Razorpay order for booking payment")
-    public ResponseEntity<?> createOrder(@PathVariable Long bookingId, HttpServletRequest request) {
-        try {
-            String email = (String) request.getAttribute("email");
-            
-            Booking booking = bookingRepository.findById(bookingId)
-                    .orElseThrow(() -> new RuntimeException("Booking not found"));
-
-            // Create Razorpay order
-            RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-            
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", (int)(booking.getAmount() * 100)); // Amount in paise
-            orderRequest.put("currency", "INR");
-            orderRequest.put("receipt", "booking_" + bookingId);
+    @Autowired
+    private RazorpayOrderService razorpayOrderService;
 
-            Order order = razorpayClient.orders.create(orderRequest);
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
 
-            // Save order ID to booking
-            booking.setRazorpayOrderId(order.get("id"));
-            booking.setPaymentStatus("PENDING");
-            bookingRepository.save(booking);
+    @PostMapping("/create-order/{bookingId}")
+    @Operation(summary = "Create Razorpay order for booking payment")
+    public ResponseEntity<?> createOrder(@PathVariable Long bookingId,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                         HttpServletRequest request) {
+        String email = (String) request.getAttribute("email");
+        return idempotencyService.execute("CREATE_PAYMENT_ORDER", email, idempotencyKey, bookingId,
+                () -> doCreateOrder(bookingId, email));
+    }
 
-            log.info("Created Razorpay order: {} for booking: {}", order.get("id"), bookingId);
+    private ResponseEntity<?> doCreateOrder(Long bookingId, String email) {
+        try {
+            RazorpayOrderService.OpenOrder order = razorpayOrderService.openOrder(bookingId);
+            Booking booking = order.getBooking();
 
             // Log payment initiation
             actionLogger.logClientAction(
                 bookingId.intValue(),
                 email != null ? email : "UNKNOWN",
                 "PAYMENT_INITIATED",
-                String.format("BookingID: %d, OrderID: %s, Amount: %.2f", bookingId, order.get("id"), booking.getAmount())
+                String.format("BookingID: %d, OrderID: %s, Amount: %.2f, Reused: %b",
+                    bookingId, order.getOrderId(), booking.getAmount(), !order.isCreated())
             );
 
             Map<String, Object> response = new HashMap<>();
-            response.put("orderId", order.get("id"));
+            response.put("orderId", order.getOrderId());
             response.put("amount", booking.getAmount());
-            response.put("currency", "INR");
-            response.put("keyId", razorpayKeyId);
+            response.put("currency", RazorpayOrderService.CURRENCY);
+            response.put("keyId", paymentGateway.getKeyId());
             response.put("bookingId", bookingId);
             response.put("tenantName", booking.getTenantName());
             response.put("tenantEmail", booking.getTenantEmail());
             response.put("tenantPhone", booking.getTenantPhone());
 
             return ResponseEntity.ok(response);
-        } catch (RazorpayException e) {
-            log.error("Razorpay error: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (PaymentGatewayUnavailableException e) {
+            log.warn("Payment gateway unavailable for booking {}: {}", bookingId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (PaymentGatewayException e) {
+            log.error("Payment gateway error: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
                     .body(Map.of("error", "Failed to create payment order: " + e.getMessage()));
         } catch (Exception e) {
             log.error("Error creating order: {}", e.getMessage(), e);
@@ -106,53 +103,44 @@ public class PaymentController {
         }
     }
 
+    @PostMapping("/webhook")
+    @Operation(summary = "Receive Razorpay payment webhooks")
+    public ResponseEntity<?> receiveWebhook(@RequestBody String payload,
+                                            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+                                            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+        // Only verified and queued here; PaymentWebhookService applies it in the background
+        PaymentWebhookService.Receipt receipt = paymentWebhookService.receive(payload, signature, eventId);
+        switch (receipt) {
+            case INVALID_SIGNATURE:
+                log.warn("Rejected payment webhook with invalid signature");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("success", false, "message", "Invalid webhook signature"));
+            case NOT_CONFIGURED:
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("success", false, "message", "Webhooks are not configured"));
+            default:
+                return ResponseEntity.ok(Map.of("success", true));
+        }
+    }
+
     @PostMapping("/verify-payment")
     @Operation(summary = "Verify Razorpay payment signature")
     public ResponseEntity<?> verifyPayment(@RequestBody Map<String, String> paymentData, HttpServletRequest request) {
         try {
-            String email = (String) request.getAttribute("email");
             String razorpayOrderId = paymentData.get("razorpay_order_id");
             String razorpayPaymentId = paymentData.get("razorpay_payment_id");
             String razorpaySignature = paymentData.get("razorpay_signature");
 
             // Verify signature
-            JSONObject options = new JSONObject();
-            options.put("razorpay_order_id", razorpayOrderId);
-            options.put("razorpay_payment_id", razorpayPaymentId);
-            options.put("razorpay_signature", razorpaySignature);
-
-            boolean isValidSignature = Utils.verifyPaymentSignature(options, razorpayKeySecret);
+            boolean isValidSignature = paymentGateway.verifyPaymentSignature(
+                    razorpayOrderId, razorpayPaymentId, razorpaySignature);
 
             if (isValidSignature) {
-                // Find booking by order ID and update payment details
-                Booking booking = bookingRepository.findByRazorpayOrderId(razorpayOrderId)
-                        .orElseThrow(() -> new RuntimeException("Booking not found for order ID: " + razorpayOrderId));
-
-                booking.setRazorpayPaymentId(razorpayPaymentId);
-                booking.setRazorpaySignature(razorpaySignature);
-                booking.setPaymentStatus("PAID");
-                booking.setStatus("CONFIRMED");
-                bookingRepository.save(booking);
+                // Find booking by order ID, record the payment and take its bed
+                Booking booking = bookingService.confirmPayment(razorpayOrderId, razorpayPaymentId, razorpaySignature);
 
                 log.info("Payment verified successfully for booking: {}", booking.getId());
-
-                // Log successful payment
-                actionLogger.logClientAction(
-                    booking.getId().intValue(),
-                    email != null ? email : "UNKNOWN",
-                    "PAYMENT_SUCCESS",
-                    String.format("BookingID: %d, PaymentID: %s, Amount: %.2f", booking.getId(), razorpayPaymentId, booking.getAmount())
-                );
-
-                // Send payment confirmation email
-                try {
-                    emailService.sendPaymentConfirmationEmail(booking, razorpayPaymentId);
-                    log.info("Payment confirmation email sent to: {}", booking.getTenantEmail());
-                } catch (Exception emailException) {
-                    log.error("Failed to send payment confirmation email: {}", emailException.getMessage());
-                    // Continue - email failure should not affect payment confirmation
-                }
-
+                // Confirmation email and action log go out through the outbox after commit
                 return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Payment verified successfully",
@@ -1,15 +1,19 @@
 package com.residentia.controller;
 
 import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.ResourceVersion;
 import com.residentia.entity.Property;
 import com.residentia.entity.Request;
+import com.residentia.service.OccupancyCalendarService;
 import com.residentia.service.PropertyService;
+import com.residentia.service.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -17,6 +21,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -30,6 +35,12 @@ public class PropertyController {
     @Autowired
     private PropertyService propertyService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private OccupancyCalendarService occupancyCalendarService;
+
     @PostMapping("/pgs")
     @Operation(summary = "Submit new property request", description = "Submit a new property/PG listing for admin approval")
     @ApiResponse(responseCode = "201", description = "Property request submitted successfully")
@@ -66,8 +77,12 @@ public class PropertyController {
             if (ownerId == null) {
                 throw new RuntimeException("Owner ID not found in request");
             }
+            ResourceVersion version = resourceVersionService.ownerProperties(ownerId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
             List<PropertyDTO> properties = propertyService.getOwnerProperties(ownerId);
-            return ResponseEntity.ok(properties);
+            return ConditionalResponses.ok(version).body(properties);
         } catch (Exception e) {
             log.error("Failed to fetch properties: {}", e.getMessage());
             throw e;
@@ -78,16 +93,46 @@ public class PropertyController {
     @Operation(summary = "Get property by ID", description = "Retrieve specific property details")
     @ApiResponse(responseCode = "200", description = "Property retrieved successfully")
     @ApiResponse(responseCode = "404", description = "Property not found")
-    public ResponseEntity<?> getPropertyById(@PathVariable Long propertyId) {
+    public ResponseEntity<?> getPropertyById(@PathVariable Long propertyId, HttpServletRequest request) {
         try {
+            ResourceVersion version = resourceVersionService.property(propertyId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                return ConditionalResponses.notModified(version);
+            }
             PropertyDTO property = propertyService.getPropertyById(propertyId);
-            return ResponseEntity.ok(property);
+            return ConditionalResponses.ok(version).body(property);
         } catch (Exception e) {
             log.error("Failed to fetch property: {}", e.getMessage());
             throw e;
         }
     }
 
+    @GetMapping("/pgs/{propertyId}/calendar")
+    @Operation(summary = "Get occupancy calendar", description = "Occupied and free beds per day from 'from' to 'to' (inclusive, yyyy-MM-dd); defaults to the next 30 days")
+    @ApiResponse(responseCode = "200", description = "Calendar retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid date range")
+    @ApiResponse(responseCode = "404", description = "Property not found")
+    public ResponseEntity<?> getOccupancyCalendar(@PathVariable Long propertyId,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                  HttpServletRequest request) {
+        try {
+            Long ownerId = (Long) request.getAttribute("ownerId");
+            if (ownerId == null) {
+                throw new RuntimeException("Owner ID not found in request");
+            }
+            LocalDate start = from != null ? from : LocalDate.now();
+            LocalDate end = to != null ? to : start.plusDays(30);
+            return ResponseEntity.ok(occupancyCalendarService.calendar(ownerId, propertyId, start, end));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid calendar request: {}", e.getMessage());
+            return ResponseEntity.status(400).body(null);
+        } catch (Exception e) {
+            log.error("Failed to fetch occupancy calendar: {}", e.getMessage());
+            throw e;
+        }
+    }
+
     @PutMapping("/pgs/{propertyId}")
     @Operation(summary = "Submit property update request", description = "Submit property/PG listing update for admin approval")
     @ApiResponse(responseCode = "201", description = "Update request submitted successfully")
@@ -0,0 +1,31 @@
+package com.residentia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyCalendarResponse {
+    private Long propertyId;
+    // Beds the listing can let at once
+    private int capacity;
+    private LocalDate from;
+    private LocalDate to;
+    // One entry per day from "from" to "to", both inclusive
+    private List<Day> days;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        // Beds held by CONFIRMED or APPROVED bookings that night
+        private int occupied;
+        private int free;
+    }
+}
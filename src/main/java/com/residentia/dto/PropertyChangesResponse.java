@@ -0,0 +1,21 @@
+package com.residentia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyChangesResponse {
+    // Current card of every listing created or changed and still ACTIVE
+    private List<PropertyDTO> upserted;
+    // Listings deleted or no longer ACTIVE; drop them from the local copy
+    private List<Long> removed;
+    // Pass as since on the next call
+    private String cursor;
+    // More changes are waiting; call again right away
+    private boolean hasMore;
+}
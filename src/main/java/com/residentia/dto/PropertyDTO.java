@@ -1,9 +1,13 @@
 package com.residentia.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,11 +24,26 @@ public class PropertyDTO {
     private Integer maxCapacity;
     private Integer availableBeds;
     private Boolean foodIncluded;
+    // Only sent on the detail view; list cards leave it out
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String description;
     private String status;
     private String mapLink;
+    private Double latitude;
+    private Double longitude;
+    // MAP_LINK, PINCODE or DISTRICT (approximate, not used by nearby search)
+    private String locationPrecision;
+    // Only set on nearby search results
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
     private String imageUrl;
     private Double rating;
     private Integer reviews;
     private String amenities;
+    // Derived from amenities; used for in-memory amenity filters
+    @JsonIgnore
+    private Long amenityMask;
+    // Property.updatedAt; stamps cached renderings of the card
+    @JsonIgnore
+    private LocalDateTime updatedAt;
 }
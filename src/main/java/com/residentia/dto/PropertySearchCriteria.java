@@ -0,0 +1,39 @@
+package com.residentia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filters for the composite client search. Every field is optional;
+ * unset filters are simply not applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertySearchCriteria {
+    // Free text matched against name, address, city, amenities and description
+    private String q;
+    private String city;
+    private Integer minBudget;
+    private Integer maxBudget;
+    private String sharingType;
+    private Boolean foodIncluded;
+    // Comma-separated amenities that must all be offered, e.g. "wifi,ac,laundry"
+    private String amenities;
+    // Only listings with availableBeds > 0
+    private Boolean availableOnly;
+    // Stay dates, given together: only listings with a free bed every night from checkIn to checkOut
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkIn;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkOut;
+    // RELEVANCE (default with q), RENT_ASC (default otherwise), RENT_DESC or NEWEST
+    private String sort;
+    // Opaque seek cursor returned as nextCursor by the previous page
+    private String cursor;
+    private Integer limit;
+}
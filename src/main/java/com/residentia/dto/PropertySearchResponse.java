@@ -0,0 +1,28 @@
+package com.residentia.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertySearchResponse {
+    private List<PropertyDTO> items;
+    // null when there are no more pages
+    private String nextCursor;
+    // facet -> value -> matching listings; only on the first page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Map<String, Integer>> facets;
+    // Known city the results were filtered on when the requested one was misspelled
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String correctedCity;
+
+    public PropertySearchResponse(List<PropertyDTO> items, String nextCursor) {
+        this(items, nextCursor, null, null);
+    }
+}
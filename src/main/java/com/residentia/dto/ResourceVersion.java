@@ -0,0 +1,14 @@
+package com.residentia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * HTTP validators of a resource: a strong ETag (quoted) and Last-Modified in epoch millis
+ */
+@Getter
+@AllArgsConstructor
+public class ResourceVersion {
+    private final String etag;
+    private final long lastModified;
+}
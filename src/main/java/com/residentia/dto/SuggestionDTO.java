@@ -0,0 +1,16 @@
+package com.residentia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String text;
+    // CITY, LOCALITY or PROPERTY
+    private String type;
+    // ACTIVE listings behind this suggestion
+    private Integer count;
+}
@@ -64,6 +64,10 @@ public class Booking {
     @Column(name = "razorpay_order_id")
     private String razorpayOrderId;
 
+    // Amount in paise the order was created for; the order is reused while it matches
+    @Column(name = "razorpay_order_amount")
+    private Long razorpayOrderAmount;
+
     @Column(name = "razorpay_payment_id")
     private String razorpayPaymentId;
 
@@ -77,9 +81,19 @@ public class Booking {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "UTC")
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "UTC")
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         this.bookingDate = LocalDateTime.now();
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
     }
 }
@@ -0,0 +1,72 @@
+package com.residentia.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A verified payment gateway webhook, stored as received and applied to its booking
+ * later by PaymentWebhookService. Workers claim PENDING rows with a claim token.
+ */
+@Entity
+@Table(name = "payment_webhook_events")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PaymentWebhookEvent {
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String PROCESSED = "PROCESSED";
+    public static final String IGNORED = "IGNORED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // X-Razorpay-Event-Id; redeliveries of an event carry the same id
+    @Column(name = "event_id", nullable = false, length = 64)
+    private String eventId;
+
+    // payment.captured, payment.failed, order.paid, ...
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(name = "razorpay_order_id", length = 64)
+    private String razorpayOrderId;
+
+    @Column(name = "razorpay_payment_id", length = 64)
+    private String razorpayPaymentId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "LONGTEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    // Not claimed before this; pushed back after each failed attempt
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -64,12 +64,25 @@ public class Property {
 
     @Column(name = "map_link")
     private String mapLink;
+
+    // Resolved from mapLink, or the pincode centroid when the link has no coordinates
+    private Double latitude;
+
+    private Double longitude;
+
+    // MAP_LINK, PINCODE or DISTRICT; see GeoLocationService
+    @Column(name = "location_precision", length = 10)
+    private String locationPrecision;
     
     @Column(columnDefinition = "LONGTEXT")
     private String imageUrl;
     
     @Column(columnDefinition = "VARCHAR(500)")
     private String amenities;
+
+    // One bit per AmenityDictionary entry recognised in amenities
+    @Column(name = "amenity_mask")
+    private Long amenityMask;
     
     private Integer reviews;
 
@@ -79,6 +92,11 @@ public class Property {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; bed recounts bump it too, so stale full-row saves fail
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
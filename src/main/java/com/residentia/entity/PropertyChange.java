@@ -0,0 +1,36 @@
+package com.residentia.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the append-only listing change log behind /api/client/properties/changes.
+ * The id doubles as the sync cursor.
+ */
+@Entity
+@Table(name = "property_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PropertyChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // No foreign key: rows outlive deleted listings
+    @Column(name = "property_id", nullable = false)
+    private Long propertyId;
+
+    // CREATED, UPDATED or DELETED (PropertyChangedEvent.ChangeType)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private String changeType;
+
+    // Set by the database at insert, so rows from every node share one clock
+    @Column(name = "changed_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,37 @@
+package com.residentia.event;
+
+import com.residentia.entity.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a Booking row has been written (created, updated, its status
+ * changed, or deleted) so that in-memory views of bed occupancy can refresh.
+ *
+ * Carries the stay dates, and the previous ones when an update moved the stay, so
+ * listeners can tell which days the change may affect.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingChangedEvent {
+
+    private final Long bookingId;
+    private final Long propertyId;
+    private final LocalDateTime checkIn;
+    private final LocalDateTime checkOut;
+    private final LocalDateTime previousCheckIn;
+    private final LocalDateTime previousCheckOut;
+
+    public static BookingChangedEvent of(Booking booking) {
+        return of(booking, booking.getCheckInDate(), booking.getCheckOutDate());
+    }
+
+    public static BookingChangedEvent of(Booking booking, LocalDateTime previousCheckIn,
+                                         LocalDateTime previousCheckOut) {
+        return new BookingChangedEvent(booking.getId(),
+                booking.getProperty() != null ? booking.getProperty().getId() : null,
+                booking.getCheckInDate(), booking.getCheckOutDate(), previousCheckIn, previousCheckOut);
+    }
+}
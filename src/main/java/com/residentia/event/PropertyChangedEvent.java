@@ -0,0 +1,36 @@
+package com.residentia.event;
+
+import com.residentia.entity.Property;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a Property row has been written (created, updated or deleted)
+ * so that in-memory views of the listings can refresh incrementally.
+ */
+@Getter
+@AllArgsConstructor
+public class PropertyChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long propertyId;
+    private final Property property;
+    private final ChangeType changeType;
+
+    public static PropertyChangedEvent created(Property property) {
+        return new PropertyChangedEvent(property.getId(), property, ChangeType.CREATED);
+    }
+
+    public static PropertyChangedEvent updated(Property property) {
+        return new PropertyChangedEvent(property.getId(), property, ChangeType.UPDATED);
+    }
+
+    public static PropertyChangedEvent deleted(Property property) {
+        return new PropertyChangedEvent(property.getId(), property, ChangeType.DELETED);
+    }
+}
@@ -0,0 +1,10 @@
+package com.residentia.exception;
+
+/**
+ * Every bed of the listing is already taken on some night of the requested stay
+ */
+public class BookingCapacityException extends RuntimeException {
+    public BookingCapacityException(String message) {
+        super(message);
+    }
+}
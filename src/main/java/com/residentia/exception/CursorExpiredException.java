@@ -0,0 +1,10 @@
+package com.residentia.exception;
+
+/**
+ * A sync cursor points before the retained change log; the client must do a full fetch
+ */
+public class CursorExpiredException extends RuntimeException {
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
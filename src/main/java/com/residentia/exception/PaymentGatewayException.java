@@ -0,0 +1,14 @@
+package com.residentia.exception;
+
+/**
+ * The payment gateway answered but refused the request
+ */
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.residentia.exception;
+
+/**
+ * The payment gateway could not be reached in time, failed, or is being skipped
+ * while it recovers; the same request may succeed later
+ */
+public class PaymentGatewayUnavailableException extends PaymentGatewayException {
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
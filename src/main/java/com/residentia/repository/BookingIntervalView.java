@@ -0,0 +1,13 @@
+package com.residentia.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stay of an active booking, for BookingAvailabilityIndex and admission checks
+ */
+public interface BookingIntervalView {
+    Long getId();
+    Long getPropertyId();
+    LocalDateTime getCheckInDate();
+    LocalDateTime getCheckOutDate();
+}
@@ -2,10 +2,21 @@ package com.residentia.repository;
 
 import com.residentia.entity.Booking;
 import com.residentia.entity.Property;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -15,4 +26,56 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByTenantEmail(String tenantEmail);
     List<Booking> findByTenantEmailIgnoreCase(String tenantEmail);
     Optional<Booking> findByRazorpayOrderId(String razorpayOrderId);
+
+    // For work outside a transaction that reads the listing and its owner
+    @Query("SELECT b FROM Booking b JOIN FETCH b.property p LEFT JOIN FETCH p.owner WHERE b.id = :id")
+    Optional<Booking> findWithPropertyById(@Param("id") Long id);
+
+    // Validators for conditional GETs. checkedOut counts bookings whose canReview flag
+    // has flipped with time rather than with a write.
+    String VERSION_SELECT = "SELECT COUNT(b) AS count, MAX(b.updatedAt) AS lastModified, "
+            + "MAX(p.updatedAt) AS propertyLastModified, "
+            + "SUM(CASE WHEN b.status = 'CONFIRMED' AND b.checkOutDate < CURRENT_TIMESTAMP THEN 1 ELSE 0 END) "
+            + "AS checkedOut FROM Booking b JOIN b.property p ";
+
+    @Query(VERSION_SELECT + "WHERE b.id = :id")
+    BookingVersionView findVersionById(@Param("id") Long id);
+
+    @Query(VERSION_SELECT + "WHERE p.owner.id = :ownerId")
+    BookingVersionView findVersionByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(VERSION_SELECT + "WHERE p.id = :propertyId")
+    BookingVersionView findVersionByPropertyId(@Param("propertyId") Long propertyId);
+
+    @Query(VERSION_SELECT + "WHERE LOWER(b.tenantEmail) = LOWER(:email)")
+    BookingVersionView findVersionByTenantEmail(@Param("email") String email);
+
+    // Stays that still hold a bed on or after :from (open-ended when checkOutDate is null)
+    String INTERVAL_SELECT = "SELECT b.id AS id, b.property.id AS propertyId, b.checkInDate AS checkInDate, "
+            + "b.checkOutDate AS checkOutDate FROM Booking b "
+            + "WHERE b.status IN :statuses AND b.checkInDate IS NOT NULL "
+            + "AND (b.checkOutDate IS NULL OR b.checkOutDate > :from) ";
+
+    @Query(INTERVAL_SELECT)
+    List<BookingIntervalView> findIntervals(@Param("statuses") Collection<String> statuses,
+                                            @Param("from") LocalDateTime from);
+
+    @Query(INTERVAL_SELECT + "AND b.property.id = :propertyId")
+    List<BookingIntervalView> findIntervalsByPropertyId(@Param("propertyId") Long propertyId,
+                                                        @Param("statuses") Collection<String> statuses,
+                                                        @Param("from") LocalDateTime from);
+
+    @Query(INTERVAL_SELECT + "AND b.property.id = :propertyId AND b.checkInDate < :to")
+    List<BookingIntervalView> findIntervalsBetween(@Param("propertyId") Long propertyId,
+                                                   @Param("statuses") Collection<String> statuses,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
+    // Forward-only MySQL streaming (fetch size Integer.MIN_VALUE); consume inside a transaction
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.property p LEFT JOIN FETCH p.owner")
+    Stream<Booking> streamAllWithProperty();
 }
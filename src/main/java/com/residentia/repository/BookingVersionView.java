@@ -0,0 +1,12 @@
+package com.residentia.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * VersionView of bookings, plus what else their DTOs are derived from
+ */
+public interface BookingVersionView extends VersionView {
+    // Newest updated_at of the booked properties (property name)
+    LocalDateTime getPropertyLastModified();
+    Long getCheckedOut();
+}
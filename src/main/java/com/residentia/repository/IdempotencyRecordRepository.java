@@ -0,0 +1,60 @@
+package com.residentia.repository;
+
+import com.residentia.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    // 1 when this caller now owns the key, 0 when a row for it already exists
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_keys "
+            + "(scope, idempotency_key, request_hash, created_at, expires_at) "
+            + "VALUES (:scope, :key, :requestHash, :createdAt, :expiresAt)", nativeQuery = true)
+    int claim(@Param("scope") String scope,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, "
+            + "r.responseBody = :responseBody WHERE r.scope = :scope AND r.idempotencyKey = :key")
+    int complete(@Param("scope") String scope,
+                 @Param("key") String key,
+                 @Param("statusCode") int statusCode,
+                 @Param("contentType") String contentType,
+                 @Param("responseBody") String responseBody);
+
+    // Frees a key whose request produced nothing worth replaying
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :key "
+            + "AND r.statusCode IS NULL")
+    int release(@Param("scope") String scope, @Param("key") String key);
+
+    // Frees a key that expired, or whose first request died before storing an outcome
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :key "
+            + "AND ((r.statusCode IS NULL AND r.createdAt <= :claimedBefore) OR r.expiresAt < :now)")
+    int releaseStale(@Param("scope") String scope,
+                     @Param("key") String key,
+                     @Param("claimedBefore") LocalDateTime claimedBefore,
+                     @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,62 @@
+package com.residentia.repository;
+
+import com.residentia.entity.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // 1 when this worker now delivers the message
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = 'PROCESSING', m.claimToken = :token, m.claimedAt = :now "
+            + "WHERE m.id = :id AND m.status = 'PENDING'")
+    int claimById(@Param("id") Long id, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    // Messages due for delivery, plus claims of workers that stopped before finishing them
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_messages SET status = 'PROCESSING', claim_token = :token, claimed_at = :now "
+            + "WHERE (status = 'PENDING' AND next_attempt_at <= :now) "
+            + "OR (status = 'PROCESSING' AND claimed_at < :staleBefore) "
+            + "ORDER BY id LIMIT :limit", nativeQuery = true)
+    int claimDue(@Param("token") String token,
+                 @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore,
+                 @Param("limit") int limit);
+
+    List<OutboxMessage> findByClaimTokenOrderById(String claimToken);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = 'SENT', m.sentAt = :now, m.claimToken = NULL, "
+            + "m.attempts = m.attempts + 1, m.lastError = NULL WHERE m.id = :id")
+    int markSent(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Back to PENDING at nextAttemptAt, or FAILED for good when status says so
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = :status, m.claimToken = NULL, m.attempts = m.attempts + 1, "
+            + "m.nextAttemptAt = :nextAttemptAt, m.lastError = :error WHERE m.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") String status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    // Unclaims a message the dispatcher had no room for, without counting an attempt
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = 'PENDING', m.claimToken = NULL WHERE m.id = :id")
+    int release(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.status = 'SENT' AND m.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,71 @@
+package com.residentia.repository;
+
+import com.residentia.entity.PaymentWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+
+    // 0 when the event was already received; the gateway redelivers until it sees a 2xx
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO payment_webhook_events "
+            + "(event_id, event_type, razorpay_order_id, razorpay_payment_id, payload, status, attempts, "
+            + "received_at, next_attempt_at) "
+            + "VALUES (:eventId, :eventType, :orderId, :paymentId, :payload, 'PENDING', 0, :receivedAt, :receivedAt)",
+            nativeQuery = true)
+    int append(@Param("eventId") String eventId,
+               @Param("eventType") String eventType,
+               @Param("orderId") String orderId,
+               @Param("paymentId") String paymentId,
+               @Param("payload") String payload,
+               @Param("receivedAt") LocalDateTime receivedAt);
+
+    // Oldest pending events that are due, plus claims of workers that stopped before finishing them
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE payment_webhook_events SET status = 'PROCESSING', claim_token = :token, "
+            + "claimed_at = :now, attempts = attempts + 1 "
+            + "WHERE (status = 'PENDING' AND next_attempt_at <= :now) "
+            + "OR (status = 'PROCESSING' AND claimed_at < :staleBefore) "
+            + "ORDER BY id LIMIT :limit", nativeQuery = true)
+    int claim(@Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore,
+              @Param("limit") int limit);
+
+    List<PaymentWebhookEvent> findByClaimTokenOrderById(String claimToken);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :status, e.processedAt = :now, e.claimToken = NULL, "
+            + "e.lastError = :error WHERE e.id IN :ids")
+    int finish(@Param("ids") Collection<Long> ids,
+               @Param("status") String status,
+               @Param("error") String error,
+               @Param("now") LocalDateTime now);
+
+    // Back to the queue at nextAttemptAt, or FAILED for good after maxAttempts
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.claimToken = NULL, e.lastError = :error, "
+            + "e.nextAttemptAt = :nextAttemptAt, "
+            + "e.status = CASE WHEN e.attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END "
+            + "WHERE e.id IN :ids")
+    int retryLater(@Param("ids") Collection<Long> ids,
+                   @Param("error") String error,
+                   @Param("maxAttempts") int maxAttempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PaymentWebhookEvent e WHERE e.status IN ('PROCESSED', 'IGNORED') AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -22,7 +22,9 @@ public interface PgRepository extends JpaRepository<Property,Integer>
 	@Query("""
 	    update Property p
 	    set p.rentAmount = :rent,
-	        p.city = :city
+	        p.city = :city,
+	        p.updatedAt = CURRENT_TIMESTAMP,
+	        p.version = p.version + 1
 	    where p.id = :id
 	""")
 	int applyPgUpdate(@Param("id") Integer id,
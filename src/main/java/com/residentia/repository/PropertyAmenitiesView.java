@@ -0,0 +1,9 @@
+package com.residentia.repository;
+
+/**
+ * Raw amenity text of a listing, used to backfill the amenity mask.
+ */
+public interface PropertyAmenitiesView {
+    Long getId();
+    String getAmenities();
+}
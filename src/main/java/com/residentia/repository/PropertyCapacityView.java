@@ -0,0 +1,10 @@
+package com.residentia.repository;
+
+/**
+ * Owner and bed count of a listing, for the occupancy calendar and bed inventory
+ */
+public interface PropertyCapacityView {
+    Long getId();
+    Long getOwnerId();
+    Integer getMaxCapacity();
+}
@@ -0,0 +1,35 @@
+package com.residentia.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view projection of a listing: the card fields plus the first image only.
+ * Leaves out the LONGTEXT description and the full image list, which are
+ * loaded on the detail endpoint.
+ */
+public interface PropertyCardView {
+    Long getId();
+    Long getOwnerId();
+    String getOwnerName();
+    String getPropertyName();
+    String getAddress();
+    String getCity();
+    String getState();
+    String getPincode();
+    Integer getRentAmount();
+    String getSharingType();
+    Integer getMaxCapacity();
+    Integer getAvailableBeds();
+    Boolean getFoodIncluded();
+    String getStatus();
+    String getMapLink();
+    Double getLatitude();
+    Double getLongitude();
+    String getLocationPrecision();
+    // First image of the stored list
+    String getImageUrl();
+    String getAmenities();
+    Long getAmenityMask();
+    Integer getReviews();
+    LocalDateTime getUpdatedAt();
+}
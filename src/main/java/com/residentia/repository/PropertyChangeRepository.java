@@ -0,0 +1,32 @@
+package com.residentia.repository;
+
+import com.residentia.entity.PropertyChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PropertyChangeRepository extends JpaRepository<PropertyChange, Long> {
+
+    @Query("SELECT c FROM PropertyChange c WHERE c.id > :since ORDER BY c.id")
+    List<PropertyChange> findAfter(@Param("since") Long since, Pageable pageable);
+
+    @Query("SELECT c.id FROM PropertyChange c WHERE c.id > :since ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("since") Long since, Pageable pageable);
+
+    // Database clock on both sides, so application nodes' clocks do not matter
+    @Query(value = "SELECT MAX(id) FROM property_changes WHERE changed_at < NOW(6) - INTERVAL :seconds SECOND",
+            nativeQuery = true)
+    Long findLastIdOlderThan(@Param("seconds") long seconds);
+
+    @Query("SELECT MIN(c.id) FROM PropertyChange c")
+    Long findFirstId();
+
+    @Modifying
+    @Query("DELETE FROM PropertyChange c WHERE c.changedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
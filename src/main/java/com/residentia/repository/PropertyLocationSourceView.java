@@ -0,0 +1,10 @@
+package com.residentia.repository;
+
+/**
+ * Columns used to resolve a listing's coordinates.
+ */
+public interface PropertyLocationSourceView {
+    Long getId();
+    String getMapLink();
+    String getPincode();
+}
@@ -0,0 +1,12 @@
+package com.residentia.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The LONGTEXT columns of a listing, fetched separately for the detail view
+ */
+public interface PropertyLongTextView {
+    String getDescription();
+    String getImageUrl();
+    LocalDateTime getUpdatedAt();
+}
@@ -3,11 +3,109 @@ package com.residentia.repository;
 import com.residentia.entity.Property;
 import com.residentia.entity.Owner;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, Long> {
+public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property>,
+        PropertyRepositoryCustom {
+
+    // Card columns for list views; skips description and keeps only the first image
+    String CARD_SELECT = "SELECT p.id AS id, o.id AS ownerId, o.name AS ownerName, "
+            + "p.propertyName AS propertyName, p.address AS address, p.city AS city, p.state AS state, "
+            + "p.pincode AS pincode, p.rentAmount AS rentAmount, p.sharingType AS sharingType, "
+            + "p.maxCapacity AS maxCapacity, p.availableBeds AS availableBeds, p.foodIncluded AS foodIncluded, "
+            + "p.status AS status, p.mapLink AS mapLink, p.latitude AS latitude, p.longitude AS longitude, "
+            + "p.locationPrecision AS locationPrecision, p.amenities AS amenities, p.amenityMask AS amenityMask, p.reviews AS reviews, p.updatedAt AS updatedAt, "
+            + "TRIM(BOTH '\"' FROM TRIM(LEADING '[' FROM FUNCTION('SUBSTRING_INDEX', p.imageUrl, ',', 1))) AS imageUrl "
+            + "FROM Property p LEFT JOIN p.owner o ";
+
     List<Property> findByOwner(Owner owner);
     List<Property> findByOwnerId(Long ownerId);
+
+    @Query(CARD_SELECT + "WHERE p.status = :status ORDER BY p.id")
+    List<PropertyCardView> findCardsByStatus(@Param("status") String status);
+
+    @Query(CARD_SELECT + "WHERE o.id = :ownerId ORDER BY p.id")
+    List<PropertyCardView> findCardsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(CARD_SELECT + "WHERE p.id IN :ids")
+    List<PropertyCardView> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_SELECT + "ORDER BY p.id")
+    List<PropertyCardView> findAllCards();
+
+    @Query("SELECT p.description AS description, p.imageUrl AS imageUrl, p.updatedAt AS updatedAt "
+            + "FROM Property p WHERE p.id = :id")
+    Optional<PropertyLongTextView> findLongTextById(@Param("id") Long id);
+
+    // Validators for conditional GETs; no entity is loaded
+    @Query("SELECT COUNT(p) AS count, MAX(p.updatedAt) AS lastModified FROM Property p WHERE p.id = :id")
+    VersionView findVersionById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(p) AS count, MAX(p.updatedAt) AS lastModified FROM Property p WHERE p.owner.id = :ownerId")
+    VersionView findVersionByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT p.id AS id, p.owner.id AS ownerId, p.maxCapacity AS maxCapacity FROM Property p WHERE p.id = :id")
+    PropertyCapacityView findCapacityById(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, p.owner.id AS ownerId, p.maxCapacity AS maxCapacity FROM Property p")
+    List<PropertyCapacityView> findAllCapacities();
+
+    @Query("SELECT p.id AS id, p.mapLink AS mapLink, p.pincode AS pincode FROM Property p "
+            + "WHERE p.latitude IS NULL OR p.locationPrecision IS NULL")
+    List<PropertyLocationSourceView> findWithoutLocation();
+
+    @Query("SELECT p.id AS id, p.amenities AS amenities FROM Property p WHERE p.amenityMask IS NULL")
+    List<PropertyAmenitiesView> findWithoutAmenityMask();
+
+    // No-op write that takes the listing's row lock until commit; 0 when it does not exist
+    @Modifying
+    @Query("UPDATE Property p SET p.updatedAt = p.updatedAt WHERE p.id = :id")
+    int lockForAdmission(@Param("id") Long id);
+
+    // Free beds, derived by BedInventoryService; 0 when the count is unchanged
+    @Modifying
+    @Query("UPDATE Property p SET p.availableBeds = :beds, p.version = p.version + 1, "
+            + "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id "
+            + "AND (p.availableBeds IS NULL OR p.availableBeds <> :beds)")
+    int updateAvailableBeds(@Param("id") Long id, @Param("beds") int beds);
+
+    @Modifying
+    @Query("UPDATE Property p SET p.amenityMask = :amenityMask WHERE p.id IN :ids")
+    int updateAmenityMask(@Param("ids") Collection<Long> ids, @Param("amenityMask") Long amenityMask);
+
+    @Modifying
+    @Query("UPDATE Property p SET p.latitude = :latitude, p.longitude = :longitude, "
+            + "p.locationPrecision = :precision WHERE p.id = :id")
+    int updateLocation(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude,
+                       @Param("precision") String precision);
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.propertyName AS propertyName, p.address AS address, p.city AS city, "
+            + "p.amenities AS amenities, p.description AS description FROM Property p WHERE p.status = :status")
+    Stream<PropertyTextView> streamTextByStatus(@Param("status") String status);
+
+    // Forward-only MySQL streaming (fetch size Integer.MIN_VALUE); consume inside a transaction
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(CARD_SELECT + "ORDER BY p.id")
+    Stream<PropertyCardView> streamAllCards();
 }
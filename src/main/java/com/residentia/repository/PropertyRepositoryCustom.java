@@ -0,0 +1,16 @@
+package com.residentia.repository;
+
+import com.residentia.entity.Property;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface PropertyRepositoryCustom {
+
+    /**
+     * Select only the ids matching a Specification, so filters and ordering can be
+     * answered from the search indexes without reading full rows
+     */
+    List<Long> findIds(Specification<Property> spec, Sort sort, int limit);
+}
@@ -0,0 +1,75 @@
+package com.residentia.repository;
+
+import com.residentia.entity.Property;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Reusable JPA Specifications for searching listings.
+ *
+ * Filters compare the raw column values (no lower()/trim() wrappers) so MySQL can
+ * use idx_city and the composite search index; the default case-insensitive
+ * collation already makes the equality checks ignore case.
+ */
+public final class PropertySpecifications {
+
+    private PropertySpecifications() {
+    }
+
+    public static Specification<Property> hasStatus(String status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Property> inCity(String city) {
+        return (root, query, cb) -> cb.equal(root.get("city"), city.trim());
+    }
+
+    public static Specification<Property> rentBetween(Integer minRent, Integer maxRent) {
+        return (root, query, cb) -> {
+            if (minRent != null && maxRent != null) {
+                return cb.between(root.get("rentAmount"), minRent, maxRent);
+            }
+            if (minRent != null) {
+                return cb.greaterThanOrEqualTo(root.get("rentAmount"), minRent);
+            }
+            return cb.lessThanOrEqualTo(root.get("rentAmount"), maxRent);
+        };
+    }
+
+    public static Specification<Property> hasSharingType(String sharingType) {
+        return (root, query, cb) -> cb.equal(root.get("sharingType"), sharingType.trim());
+    }
+
+    public static Specification<Property> foodIncluded(Boolean foodIncluded) {
+        return (root, query, cb) -> cb.equal(root.get("foodIncluded"), foodIncluded);
+    }
+
+    /**
+     * Listings offering every amenity in the mask: (amenity_mask & mask) = mask
+     */
+    public static Specification<Property> hasAmenities(long mask) {
+        return (root, query, cb) -> cb.equal(
+                cb.function("bitand", Long.class, root.get("amenityMask"), cb.literal(mask)), mask);
+    }
+
+    public static Specification<Property> hasAvailableBeds() {
+        return (root, query, cb) -> cb.greaterThan(root.get("availableBeds"), 0);
+    }
+
+    /**
+     * Seek predicate for (rentAmount, id) ordering: rows strictly after the cursor row
+     */
+    public static Specification<Property> afterRent(Integer rent, Long id, boolean descending) {
+        return (root, query, cb) -> descending
+                ? cb.or(cb.lessThan(root.get("rentAmount"), rent),
+                        cb.and(cb.equal(root.get("rentAmount"), rent), cb.lessThan(root.get("id"), id)))
+                : cb.or(cb.greaterThan(root.get("rentAmount"), rent),
+                        cb.and(cb.equal(root.get("rentAmount"), rent), cb.greaterThan(root.get("id"), id)));
+    }
+
+    /**
+     * Seek predicate for id-descending (newest first) ordering
+     */
+    public static Specification<Property> idBefore(Long id) {
+        return (root, query, cb) -> cb.lessThan(root.get("id"), id);
+    }
+}
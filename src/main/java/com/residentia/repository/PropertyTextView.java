@@ -0,0 +1,13 @@
+package com.residentia.repository;
+
+/**
+ * Searchable text columns of a listing, used to build the full-text index.
+ */
+public interface PropertyTextView {
+    Long getId();
+    String getPropertyName();
+    String getAddress();
+    String getCity();
+    String getAmenities();
+    String getDescription();
+}
@@ -0,0 +1,12 @@
+package com.residentia.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and newest updated_at of a set of rows; a cheap validator for a list
+ * (a deleted row lowers the count, any write raises the timestamp)
+ */
+public interface VersionView {
+    Long getCount();
+    LocalDateTime getLastModified();
+}
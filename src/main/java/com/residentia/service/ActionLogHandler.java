@@ -0,0 +1,33 @@
+package com.residentia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.residentia.logging.ActionLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client action log entry. Payload: userId, email, action, details.
+ */
+@Component
+public class ActionLogHandler implements OutboxHandler {
+
+    public static final String TYPE = "CLIENT_ACTION_LOG";
+
+    @Autowired
+    private ActionLogger actionLogger;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(JsonNode payload) {
+        JsonNode userId = payload.path("userId");
+        actionLogger.logClientAction(
+                userId.isNumber() ? userId.asInt() : null,
+                payload.path("email").asText("UNKNOWN"),
+                payload.path("action").asText(),
+                payload.path("details").asText("N/A"));
+    }
+}
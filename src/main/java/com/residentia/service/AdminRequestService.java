@@ -2,11 +2,14 @@ package com.residentia.service;
 
 import com.residentia.entity.Request;
 import com.residentia.entity.Property;
+import com.residentia.event.PropertyChangedEvent;
 import com.residentia.repository.RequestRepository;
 import com.residentia.repository.PropertyRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
@@ -22,6 +25,15 @@ public class AdminRequestService {
     
     @Autowired
     private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private GeoLocationService geoLocationService;
+
+    @Autowired
+    private BedInventoryService bedInventoryService;
     
     private final ObjectMapper objectMapper = new ObjectMapper();
     
@@ -53,6 +65,7 @@ public class AdminRequestService {
     /**
      * Approve a change request and apply changes to the property
      */
+    @Transactional
     public Request approveChangeRequest(Integer requestId) {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
@@ -66,7 +79,9 @@ public class AdminRequestService {
             createPropertyFromRequest(request);
         }
         
-        return requestRepository.save(request);
+        Request savedRequest = requestRepository.save(request);
+        eventPublisher.publishEvent(PropertyChangedEvent.updated(request.getProperty()));
+        return savedRequest;
     }
 
     /**
@@ -134,8 +149,8 @@ public class AdminRequestService {
                         property.setMaxCapacity(((Number) value).intValue());
                         break;
                     case "availablebeds":
-                    case "availableBeds":
-                        property.setAvailableBeds(((Number) value).intValue());
+                        // Derived from bookings by BedInventoryService, never taken from a request
+                        log.info("Ignoring availableBeds in change request for property {}", property.getId());
                         break;
                     case "foodincluded":
                     case "foodIncluded":
@@ -161,7 +176,10 @@ public class AdminRequestService {
             }
             
             // Save the updated property
+            property.setAmenityMask(AmenityDictionary.toMask(property.getAmenities()));
+            geoLocationService.locate(property);
             propertyRepository.save(property);
+            bedInventoryService.recount(property.getId());
             log.info("Property {} updated successfully", property.getId());
             
         } catch (Exception e) {
@@ -219,11 +237,6 @@ public class AdminRequestService {
                             tempProperty.setMaxCapacity(((Number) value).intValue());
                         }
                         break;
-                    case "availablebeds":
-                        if (value instanceof Number) {
-                            tempProperty.setAvailableBeds(((Number) value).intValue());
-                        }
-                        break;
                     case "foodincluded":
                         tempProperty.setFoodIncluded((Boolean) value);
                         break;
@@ -246,7 +259,10 @@ public class AdminRequestService {
             tempProperty.setStatus("ACTIVE");
             
             // Save the fully populated property
+            tempProperty.setAmenityMask(AmenityDictionary.toMask(tempProperty.getAmenities()));
+            geoLocationService.locate(tempProperty);
             propertyRepository.save(tempProperty);
+            bedInventoryService.recount(tempProperty.getId());
             log.info("Property {} created successfully after approval", tempProperty.getId());
             
         } catch (Exception e) {
@@ -0,0 +1,139 @@
+package com.residentia.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Canonical amenity names and their bit in Property.amenityMask.
+ *
+ * Owners type amenities free-form ("Wi-Fi, A/C, washing machine"); each entry is
+ * matched against the synonyms below and folded into one bit, so filtering on
+ * several amenities is a single AND-mask compare. Bit positions are persisted:
+ * append new amenities, never renumber existing ones.
+ */
+public final class AmenityDictionary {
+
+    public enum Amenity {
+        WIFI(0, "WiFi", "wifi", "wi fi", "internet", "wireless internet", "broadband"),
+        AC(1, "AC", "ac", "a c", "air conditioning", "air conditioner", "air conditioned"),
+        LAUNDRY(2, "Laundry", "laundry", "washing machine", "washing", "laundry service"),
+        POWER_BACKUP(3, "Power Backup", "power backup", "inverter", "generator", "backup"),
+        PARKING(4, "Parking", "parking", "bike parking", "car parking", "two wheeler parking"),
+        CCTV(5, "CCTV", "cctv", "security camera", "cctv surveillance"),
+        SECURITY(6, "Security", "security", "security guard", "guard", "24x7 security"),
+        HOUSEKEEPING(7, "Housekeeping", "housekeeping", "cleaning", "room cleaning", "daily cleaning"),
+        GYM(8, "Gym", "gym", "fitness", "fitness centre", "fitness center"),
+        TV(9, "TV", "tv", "television", "smart tv"),
+        REFRIGERATOR(10, "Refrigerator", "refrigerator", "fridge"),
+        HOT_WATER(11, "Hot Water", "hot water", "geyser", "water heater"),
+        RO_WATER(12, "RO Water", "ro water", "ro", "drinking water", "water purifier", "purified water"),
+        LIFT(13, "Lift", "lift", "elevator"),
+        MEALS(14, "Meals", "meals", "food", "mess", "breakfast", "tiffin"),
+        KITCHEN(15, "Kitchen", "kitchen", "cooking", "shared kitchen"),
+        ATTACHED_BATHROOM(16, "Attached Bathroom", "attached bathroom", "attached bath", "attached washroom"),
+        STUDY_TABLE(17, "Study Table", "study table", "desk", "study desk"),
+        WARDROBE(18, "Wardrobe", "wardrobe", "cupboard", "almirah");
+
+        private final long bit;
+        private final String label;
+        private final String[] synonyms;
+
+        Amenity(int position, String label, String... synonyms) {
+            this.bit = 1L << position;
+            this.label = label;
+            this.synonyms = synonyms;
+        }
+
+        public long getBit() {
+            return bit;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Map<String, Amenity> BY_SYNONYM = new HashMap<>();
+
+    static {
+        for (Amenity amenity : Amenity.values()) {
+            for (String synonym : amenity.synonyms) {
+                BY_SYNONYM.put(synonym, amenity);
+            }
+            BY_SYNONYM.put(normalize(amenity.name()), amenity);
+        }
+    }
+
+    private AmenityDictionary() {
+    }
+
+    /**
+     * Mask of every recognised amenity in a free-form list; unknown entries are ignored
+     */
+    public static long toMask(String amenities) {
+        long mask = 0;
+        for (String entry : split(amenities)) {
+            Amenity amenity = BY_SYNONYM.get(normalize(entry));
+            if (amenity != null) {
+                mask |= amenity.bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Mask for a client filter such as "wifi,ac,laundry"
+     *
+     * @throws IllegalArgumentException when an entry is not a known amenity
+     */
+    public static long parseFilter(String amenities) {
+        long mask = 0;
+        for (String entry : split(amenities)) {
+            Amenity amenity = BY_SYNONYM.get(normalize(entry));
+            if (amenity == null) {
+                throw new IllegalArgumentException("Unknown amenity: " + entry.trim());
+            }
+            mask |= amenity.bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Canonical labels of the amenities in a mask, in dictionary order
+     */
+    public static List<String> labels(Long mask) {
+        List<String> labels = new ArrayList<>();
+        if (mask == null || mask == 0) {
+            return labels;
+        }
+        for (Amenity amenity : Amenity.values()) {
+            if ((mask & amenity.bit) != 0) {
+                labels.add(amenity.label);
+            }
+        }
+        return labels;
+    }
+
+    private static List<String> split(String amenities) {
+        List<String> entries = new ArrayList<>();
+        if (amenities == null) {
+            return entries;
+        }
+        for (String entry : amenities.split("[,;|\\n]")) {
+            if (!entry.isBlank()) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    // "Wi-Fi" -> "wi fi", "A/C" -> "a c", "AIR_CONDITIONING" -> "air conditioning"
+    private static String normalize(String entry) {
+        return entry.toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+    }
+}
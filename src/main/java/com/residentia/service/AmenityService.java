@@ -0,0 +1,47 @@
+package com.residentia.service;
+
+import com.residentia.repository.PropertyAmenitiesView;
+import com.residentia.repository.PropertyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class AmenityService {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    /**
+     * Derive amenity_mask for rows saved before the column existed.
+     * Rows are grouped by mask so the backfill issues one UPDATE per distinct mask.
+     * Runs before the catalog loads so the first build sees the masks.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void backfill() {
+        List<PropertyAmenitiesView> pending = propertyRepository.findWithoutAmenityMask();
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Long>> idsByMask = new HashMap<>();
+        for (PropertyAmenitiesView row : pending) {
+            idsByMask.computeIfAbsent(AmenityDictionary.toMask(row.getAmenities()), k -> new ArrayList<>())
+                    .add(row.getId());
+        }
+        idsByMask.forEach((mask, ids) -> propertyRepository.updateAmenityMask(ids, mask));
+        log.info("Backfilled amenity masks for {} listings ({} distinct masks)", pending.size(), idsByMask.size());
+    }
+}
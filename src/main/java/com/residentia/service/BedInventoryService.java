@@ -0,0 +1,113 @@
+package com.residentia.service;
+
+import com.residentia.entity.Property;
+import com.residentia.event.PropertyChangedEvent;
+import com.residentia.repository.BookingIntervalView;
+import com.residentia.repository.BookingRepository;
+import com.residentia.repository.PropertyCapacityView;
+import com.residentia.repository.PropertyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps Property.availableBeds equal to the beds free tonight.
+ *
+ * The count is derived, never adjusted: beds minus the CONFIRMED and APPROVED stays
+ * that cover today, with the same night rules as BookingAvailabilityIndex. Admission
+ * is decided on the stay's own dates (BookingAdmissionService.hasRoom), so a booking
+ * months ahead is not refused because tonight is full. A listing is recounted when
+ * one of its bookings changes and every night after midnight, when stays start and
+ * end without a write. The nightly pass recounts each listing in its own short
+ * transaction, so admissions waiting on a listing's row lock are not held up for
+ * the whole run.
+ *
+ * The count is stored with a single UPDATE that also bumps the listing's version, so
+ * a full-row save that loaded it earlier fails instead of writing an old count back
+ * (see OptimisticRetry).
+ */
+@Slf4j
+@Service
+public class BedInventoryService {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Recount a listing's free beds from its bookings
+     */
+    @Transactional
+    public void recount(Long propertyId) {
+        update(propertyId);
+    }
+
+    /**
+     * Recount every listing once stays that ended yesterday or start today have moved
+     */
+    @Scheduled(cron = "${beds.recount-cron:0 5 0 * * *}")
+    public void recountAll() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int changed = 0;
+        for (PropertyCapacityView property : propertyRepository.findAllCapacities()) {
+            try {
+                if (Boolean.TRUE.equals(transaction.execute(status -> update(property.getId())))) {
+                    changed++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Recounting free beds of property {} failed: {}", property.getId(), e.getMessage());
+            }
+        }
+        log.info("Recounted free beds, {} listings changed", changed);
+    }
+
+    // True when the stored count changed
+    private boolean update(Long propertyId) {
+        PropertyCapacityView property = propertyRepository.findCapacityById(propertyId);
+        if (property == null) {
+            return false;
+        }
+        LocalDate today = LocalDate.now();
+        List<BookingIntervalView> stays = bookingRepository.findIntervalsByPropertyId(
+                propertyId, BookingAvailabilityIndex.ACTIVE_STATUSES, today.atStartOfDay());
+        int taken = stays.isEmpty() ? 0 : BookingAvailabilityIndex.Occupancy.of(stays)
+                .maxBetween(today.toEpochDay(), today.toEpochDay() + 1);
+        int free = Math.max(BookingAvailabilityIndex.beds(property.getMaxCapacity()) - taken, 0);
+        if (propertyRepository.updateAvailableBeds(propertyId, free) != 1) {
+            return false;
+        }
+        changed(propertyId);
+        return true;
+    }
+
+    // The bulk update bypasses the persistence context: reload the row so the
+    // transaction and the catalog see the new count and version
+    private void changed(Long propertyId) {
+        Property property = entityManager.find(Property.class, propertyId);
+        if (property != null) {
+            entityManager.refresh(property);
+            eventPublisher.publishEvent(PropertyChangedEvent.updated(property));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.residentia.service;
+
+import com.residentia.entity.Property;
+import com.residentia.exception.ResourceNotFoundException;
+import com.residentia.repository.BookingIntervalView;
+import com.residentia.repository.BookingRepository;
+import com.residentia.repository.PropertyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Capacity check for bookings that hold a bed (CONFIRMED or APPROVED).
+ *
+ * A stay fits when, on every night of it, the listing's other active stays leave at
+ * least one of its maxCapacity beds free. Admissions for the same listing are
+ * serialized twice: a striped lock queues them on this node without tying up
+ * connections, and a no-op conditional UPDATE on the listing row holds the row lock
+ * until commit, which serializes them across nodes.
+ */
+@Service
+public class BookingAdmissionService {
+
+    // Power of two, so a stripe is picked with a mask
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public BookingAdmissionService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Run work in a new transaction holding the listing's admission lock until commit.
+     * A caller's transaction is suspended, not joined, so the row lock is released
+     * when work commits rather than held past the stripe lock.
+     */
+    public <T> T withAdmissionLock(Long propertyId, Supplier<T> work) {
+        ReentrantLock stripe = stripes[Long.hashCode(propertyId * 0x9E3779B97F4A7C15L) & (STRIPES - 1)];
+        stripe.lock();
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            return transaction.execute(status -> {
+                // First statement of the transaction, so its reads start after the
+                // previous holder committed and see the beds it took
+                if (propertyRepository.lockForAdmission(propertyId) == 0) {
+                    throw new ResourceNotFoundException("Property not found with id: " + propertyId);
+                }
+                return work.get();
+            });
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Whether a stay fits beside the listing's other active bookings.
+     * Call inside withAdmissionLock; a stay without a check-in date is not checked.
+     *
+     * @param excludeBookingId the booking being changed, or null for a new one
+     */
+    public boolean hasRoom(Property property, LocalDateTime checkIn, LocalDateTime checkOut, Long excludeBookingId) {
+        if (checkIn == null) {
+            return true;
+        }
+        List<BookingIntervalView> stays = bookingRepository.findIntervalsByPropertyId(
+                        property.getId(), BookingAvailabilityIndex.ACTIVE_STATUSES, checkIn.toLocalDate().atStartOfDay())
+                .stream()
+                .filter(stay -> !Objects.equals(stay.getId(), excludeBookingId))
+                .collect(Collectors.toList());
+        if (stays.isEmpty()) {
+            return true;
+        }
+        long from = checkIn.toLocalDate().toEpochDay();
+        long to = checkOut != null ? checkOut.toLocalDate().toEpochDay() : Long.MAX_VALUE;
+        int taken = BookingAvailabilityIndex.Occupancy.of(stays).maxBetween(from, to);
+        return taken < BookingAvailabilityIndex.beds(property.getMaxCapacity());
+    }
+}
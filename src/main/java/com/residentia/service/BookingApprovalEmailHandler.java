@@ -0,0 +1,40 @@
+package com.residentia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.residentia.entity.Booking;
+import com.residentia.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the tenant the owner approved their booking and it can be paid. Payload: bookingId.
+ */
+@Slf4j
+@Component
+public class BookingApprovalEmailHandler implements OutboxHandler {
+
+    public static final String TYPE = "BOOKING_APPROVAL_EMAIL";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(JsonNode payload) throws Exception {
+        long bookingId = payload.path("bookingId").asLong();
+        Booking booking = bookingRepository.findWithPropertyById(bookingId).orElse(null);
+        if (booking == null) {
+            log.warn("Booking {} is gone, approval email not sent", bookingId);
+            return;
+        }
+        emailService.sendBookingApprovalEmail(booking);
+    }
+}
@@ -0,0 +1,237 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import com.residentia.event.BookingChangedEvent;
+import com.residentia.repository.BookingIntervalView;
+import com.residentia.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bed occupancy per listing over time, for date-range availability.
+ *
+ * The CONFIRMED and APPROVED stays of each property are swept into a step function
+ * (a breakpoint at every check-in and check-out day, occupancy constant in between)
+ * with a max segment tree on top. Whether a bed is free on every night of
+ * [checkIn, checkOut) is then two binary searches and one range-max query, i.e.
+ * O(log n) in that property's bookings. Stays that have already ended are not kept.
+ *
+ * Rebuilt with the catalog, so the periodic resync also picks up bookings written by
+ * other nodes, and refreshed per property from BookingChangedEvent after commit. A
+ * refresh re-reads the property's stays instead of patching its tree: by then an
+ * updated booking's previous dates are no longer known.
+ */
+@Slf4j
+@Service
+public class BookingAvailabilityIndex implements ListingIndex {
+
+    public static final List<String> ACTIVE_STATUSES = List.of("CONFIRMED", "APPROVED");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ResponseCacheService responseCacheService;
+
+    // Beds per listing (maxCapacity, at least one), kept from the catalog cards
+    private final Map<Long, Integer> capacities = new ConcurrentHashMap<>();
+
+    // Replaced as a whole on rebuild; single entries change under writeLock
+    private volatile Map<Long, Occupancy> occupancies = new ConcurrentHashMap<>();
+
+    // Serializes rebuilds and refreshes, so an older full load cannot undo a refresh
+    private final Object writeLock = new Object();
+
+    @Override
+    public void rebuild(Collection<PropertyDTO> cards) {
+        Map<Long, Integer> loadedCapacities = new HashMap<>();
+        for (PropertyDTO card : cards) {
+            loadedCapacities.put(card.getPropertyId(), capacityOf(card));
+        }
+        capacities.putAll(loadedCapacities);
+        capacities.keySet().retainAll(loadedCapacities.keySet());
+
+        synchronized (writeLock) {
+            Map<Long, List<BookingIntervalView>> stays = bookingRepository
+                    .findIntervals(ACTIVE_STATUSES, LocalDate.now().atStartOfDay())
+                    .stream()
+                    .collect(Collectors.groupingBy(BookingIntervalView::getPropertyId));
+            Map<Long, Occupancy> loaded = new ConcurrentHashMap<>();
+            stays.forEach((propertyId, intervals) -> loaded.put(propertyId, Occupancy.of(intervals)));
+            occupancies = loaded;
+            log.info("Availability index built for {} listings with current bookings", loaded.size());
+        }
+    }
+
+    @Override
+    public void index(Property property, PropertyDTO card) {
+        capacities.put(card.getPropertyId(), capacityOf(card));
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        // Occupancy stays until the next rebuild, in case the listing is reactivated
+        capacities.remove(propertyId);
+    }
+
+    /**
+     * Re-read a property's stays once a booking write has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getPropertyId() == null) {
+            return;
+        }
+        refresh(event.getPropertyId());
+        // Date-filtered search results depend on bookings too
+        responseCacheService.invalidate(ResponseCacheService.LISTINGS);
+    }
+
+    public void refresh(Long propertyId) {
+        synchronized (writeLock) {
+            List<BookingIntervalView> stays = bookingRepository.findIntervalsByPropertyId(
+                    propertyId, ACTIVE_STATUSES, LocalDate.now().atStartOfDay());
+            if (stays.isEmpty()) {
+                occupancies.remove(propertyId);
+            } else {
+                occupancies.put(propertyId, Occupancy.of(stays));
+            }
+        }
+        log.debug("Availability refreshed for property {}", propertyId);
+    }
+
+    /**
+     * Whether the listing has a free bed on every night of [checkIn, checkOut)
+     */
+    public boolean isAvailable(Long propertyId, LocalDate checkIn, LocalDate checkOut) {
+        Occupancy occupancy = occupancies.get(propertyId);
+        return occupancy == null
+                || occupancy.maxBetween(checkIn.toEpochDay(), checkOut.toEpochDay()) < capacity(propertyId);
+    }
+
+    /**
+     * Listings with no free bed on at least one night of [checkIn, checkOut).
+     * Only listings with bookings can be full, so this is usually a small set.
+     */
+    public Set<Long> fullyBooked(LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        Set<Long> full = new HashSet<>();
+        occupancies.forEach((propertyId, occupancy) -> {
+            if (occupancy.maxBetween(from, to) >= capacity(propertyId)) {
+                full.add(propertyId);
+            }
+        });
+        return full;
+    }
+
+    private int capacity(Long propertyId) {
+        return capacities.getOrDefault(propertyId, 1);
+    }
+
+    private static int capacityOf(PropertyDTO card) {
+        return beds(card.getMaxCapacity());
+    }
+
+    /**
+     * Beds a listing can let at once; listings without a maxCapacity count as one
+     */
+    static int beds(Integer maxCapacity) {
+        return maxCapacity != null && maxCapacity > 0 ? maxCapacity : 1;
+    }
+
+    /**
+     * Whether a booking status holds a bed
+     */
+    public static boolean holdsBed(String status) {
+        return status != null && ACTIVE_STATUSES.contains(status.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Beds taken per day for one property, immutable once built
+     */
+    static final class Occupancy {
+
+        // Segment i covers days [starts[i], starts[i + 1]); the last one is unbounded
+        private final long[] starts;
+
+        // Max segment tree over the segments' bed counts, leaves at n..2n-1
+        private final int[] tree;
+
+        private Occupancy(long[] starts, int[] tree) {
+            this.starts = starts;
+            this.tree = tree;
+        }
+
+        static Occupancy of(List<BookingIntervalView> stays) {
+            TreeMap<Long, Integer> deltas = new TreeMap<>();
+            for (BookingIntervalView stay : stays) {
+                long checkIn = stay.getCheckInDate().toLocalDate().toEpochDay();
+                deltas.merge(checkIn, 1, Integer::sum);
+                // Without a check-out date the bed stays taken
+                if (stay.getCheckOutDate() != null) {
+                    // A same-day stay still holds the bed for one night
+                    long checkOut = Math.max(stay.getCheckOutDate().toLocalDate().toEpochDay(), checkIn + 1);
+                    deltas.merge(checkOut, -1, Integer::sum);
+                }
+            }
+            int n = deltas.size();
+            long[] starts = new long[n];
+            int[] tree = new int[2 * n];
+            int i = 0;
+            int beds = 0;
+            for (Map.Entry<Long, Integer> delta : deltas.entrySet()) {
+                beds += delta.getValue();
+                starts[i] = delta.getKey();
+                tree[n + i] = beds;
+                i++;
+            }
+            for (int node = n - 1; node > 0; node--) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+            return new Occupancy(starts, tree);
+        }
+
+        /**
+         * Most beds taken on any day of [from, to), in epoch days
+         */
+        int maxBetween(long from, long to) {
+            int n = starts.length;
+            // Days before the first breakpoint have nothing booked
+            int first = Math.max(floorIndex(from), 0);
+            int last = floorIndex(Math.max(to, from + 1) - 1);
+            int max = 0;
+            for (int l = first + n, r = last + n + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    max = Math.max(max, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    max = Math.max(max, tree[--r]);
+                }
+            }
+            return max;
+        }
+
+        // Index of the last breakpoint on or before day, or -1
+        private int floorIndex(long day) {
+            int i = Arrays.binarySearch(starts, day);
+            return i >= 0 ? i : -i - 2;
+        }
+    }
+}
@@ -3,72 +3,125 @@ package com.residentia.service;
 import com.residentia.dto.BookingDTO;
 import com.residentia.entity.Booking;
 import com.residentia.entity.Property;
+import com.residentia.event.BookingChangedEvent;
+import com.residentia.exception.BookingCapacityException;
 import com.residentia.exception.ResourceNotFoundException;
 import com.residentia.repository.BookingRepository;
 import com.residentia.repository.PropertyRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class BookingService {
 
+    // Created while every bed is taken for the requested dates
+    public static final String WAITLISTED = "WAITLISTED";
+
     @Autowired
     private BookingRepository bookingRepository;
 
     @Autowired
     private PropertyRepository propertyRepository;
 
-    public Booking createBooking(Long propertyId, BookingDTO bookingDTO) {
-        log.info("Creating booking for property: {}", propertyId);
-
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new ResourceNotFoundException("Property not found with id: " + propertyId));
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        Booking booking = new Booking();
-        booking.setProperty(property);
+    @Autowired
+    private BookingAdmissionService bookingAdmissionService;
 
-        // Tenant info
-        booking.setTenantName(bookingDTO.getTenantName());
-        booking.setTenantEmail(bookingDTO.getTenantEmail());
-        booking.setTenantPhone(bookingDTO.getTenantPhone());
+    @Autowired
+    private BedInventoryService bedInventoryService;
 
-        // Dates & amount
-        if (bookingDTO.getCheckInDate() != null) booking.setCheckInDate(bookingDTO.getCheckInDate());
-        if (bookingDTO.getCheckOutDate() != null) booking.setCheckOutDate(bookingDTO.getCheckOutDate());
-        
-        // Use property's rent amount if booking amount not provided
-        Double amount = bookingDTO.getAmount();
-        if (amount == null || amount == 0.0) {
-            amount = property.getRentAmount() != null ? property.getRentAmount().doubleValue() : 0.0;
-        }
-        booking.setAmount(amount);
-        booking.setNotes(bookingDTO.getNotes());
+    @Autowired
+    private OutboxService outboxService;
 
-        booking.setStatus(bookingDTO.getStatus() != null ? bookingDTO.getStatus() : "PENDING");
-        booking.setPaymentStatus("PENDING"); // Initialize payment status
+    public Booking createBooking(Long propertyId, BookingDTO bookingDTO) {
+        log.info("Creating booking for property: {}", propertyId);
 
-        return bookingRepository.save(booking);
+        return bookingAdmissionService.withAdmissionLock(propertyId, () -> {
+            Property property = propertyRepository.findById(propertyId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Property not found with id: " + propertyId));
+
+            Booking booking = new Booking();
+            booking.setProperty(property);
+
+            // Tenant info
+            booking.setTenantName(bookingDTO.getTenantName());
+            booking.setTenantEmail(bookingDTO.getTenantEmail());
+            booking.setTenantPhone(bookingDTO.getTenantPhone());
+
+            // Dates & amount
+            if (bookingDTO.getCheckInDate() != null) booking.setCheckInDate(bookingDTO.getCheckInDate());
+            if (bookingDTO.getCheckOutDate() != null) booking.setCheckOutDate(bookingDTO.getCheckOutDate());
+
+            // Use property's rent amount if booking amount not provided
+            Double amount = bookingDTO.getAmount();
+            if (amount == null || amount == 0.0) {
+                amount = property.getRentAmount() != null ? property.getRentAmount().doubleValue() : 0.0;
+            }
+            booking.setAmount(amount);
+            booking.setNotes(bookingDTO.getNotes());
+
+            String status = bookingDTO.getStatus() != null ? bookingDTO.getStatus() : "PENDING";
+            if (!bookingAdmissionService.hasRoom(property, booking.getCheckInDate(), booking.getCheckOutDate(), null)) {
+                if (BookingAvailabilityIndex.holdsBed(status)) {
+                    throw new BookingCapacityException("No bed free at property " + propertyId + " for the requested dates");
+                }
+                // Kept as a request the owner can approve once a bed frees up
+                log.info("Property {} is full for the requested dates, booking waitlisted", propertyId);
+                status = WAITLISTED;
+            }
+            booking.setStatus(status);
+            booking.setPaymentStatus("PENDING"); // Initialize payment status
+
+            Booking saved = bookingRepository.save(booking);
+            recountBeds(saved, false);
+            eventPublisher.publishEvent(BookingChangedEvent.of(saved));
+            return saved;
+        });
     }
 
     public Booking updateBooking(Long bookingId, BookingDTO bookingDTO) {
         log.info("Updating booking: {}", bookingId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
-
-        if (bookingDTO.getStatus() != null) booking.setStatus(bookingDTO.getStatus());
-        if (bookingDTO.getCheckInDate() != null) booking.setCheckInDate(bookingDTO.getCheckInDate());
-        if (bookingDTO.getCheckOutDate() != null) booking.setCheckOutDate(bookingDTO.getCheckOutDate());
-        if (bookingDTO.getAmount() != null) booking.setAmount(bookingDTO.getAmount());
-        if (bookingDTO.getNotes() != null) booking.setNotes(bookingDTO.getNotes());
-
-        return bookingRepository.save(booking);
+        return bookingAdmissionService.withAdmissionLock(propertyIdOf(bookingId), () -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+            boolean heldBed = BookingAvailabilityIndex.holdsBed(booking.getStatus());
+            String previousStatus = booking.getStatus();
+            LocalDateTime previousCheckIn = booking.getCheckInDate();
+            LocalDateTime previousCheckOut = booking.getCheckOutDate();
+
+            if (bookingDTO.getStatus() != null) booking.setStatus(bookingDTO.getStatus());
+            if (bookingDTO.getCheckInDate() != null) booking.setCheckInDate(bookingDTO.getCheckInDate());
+            if (bookingDTO.getCheckOutDate() != null) booking.setCheckOutDate(bookingDTO.getCheckOutDate());
+            if (bookingDTO.getAmount() != null) booking.setAmount(bookingDTO.getAmount());
+            if (bookingDTO.getNotes() != null) booking.setNotes(bookingDTO.getNotes());
+
+            boolean datesChanged = bookingDTO.getCheckInDate() != null || bookingDTO.getCheckOutDate() != null;
+            if (BookingAvailabilityIndex.holdsBed(booking.getStatus()) && (!heldBed || datesChanged)) {
+                admit(booking);
+            }
+
+            Booking saved = bookingRepository.save(booking);
+            recountBeds(saved, heldBed);
+            eventPublisher.publishEvent(BookingChangedEvent.of(saved, previousCheckIn, previousCheckOut));
+            notifyIfApproved(saved, previousStatus);
+            return saved;
+        });
     }
 
     public List<BookingDTO> getBookingsByClientEmail(String email) {
@@ -118,10 +171,17 @@ public class BookingService {
     public void deleteBooking(Long bookingId) {
         log.info("Deleting booking: {}", bookingId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
-
-        bookingRepository.delete(booking);
+        bookingAdmissionService.withAdmissionLock(propertyIdOf(bookingId), () -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+
+            bookingRepository.delete(booking);
+            if (BookingAvailabilityIndex.holdsBed(booking.getStatus())) {
+                bedInventoryService.recount(booking.getProperty().getId());
+            }
+            eventPublisher.publishEvent(BookingChangedEvent.of(booking));
+            return null;
+        });
     }
 
     public List<BookingDTO> getAllBookings() {
@@ -129,22 +189,170 @@ public class BookingService {
         return bookings.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    /**
+     * Stream all bookings as DTOs; must be consumed inside a transaction
+     */
+    public Stream<BookingDTO> streamAllBookings() {
+        return bookingRepository.streamAllWithProperty().map(this::convertToDTO);
+    }
+
     public Booking cancelBooking(Long bookingId) {
         log.info("Cancelling booking: {}", bookingId);
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
-        booking.setStatus("CANCELLED");
-        return bookingRepository.save(booking);
+        return bookingAdmissionService.withAdmissionLock(propertyIdOf(bookingId), () -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+            boolean heldBed = BookingAvailabilityIndex.holdsBed(booking.getStatus());
+            booking.setStatus("CANCELLED");
+            Booking saved = bookingRepository.save(booking);
+            recountBeds(saved, heldBed);
+            eventPublisher.publishEvent(BookingChangedEvent.of(saved));
+            return saved;
+        });
     }
 
     public Booking restoreBooking(Long bookingId) {
         log.info("Restoring booking: {}", bookingId);
-        Booking booking = bookingRepository.findById(bookingId)
+        return bookingAdmissionService.withAdmissionLock(propertyIdOf(bookingId), () -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+            boolean heldBed = BookingAvailabilityIndex.holdsBed(booking.getStatus());
+            String previousStatus = booking.getStatus();
+            if (!heldBed) {
+                admit(booking);
+            }
+            booking.setStatus("APPROVED");
+            // Keep payment status as PENDING - client needs to pay after owner approval
+            booking.setPaymentStatus("PENDING");
+            Booking saved = bookingRepository.save(booking);
+            recountBeds(saved, heldBed);
+            eventPublisher.publishEvent(BookingChangedEvent.of(saved));
+            notifyIfApproved(saved, previousStatus);
+            return saved;
+        });
+    }
+
+    /**
+     * Record a verified payment and confirm its booking, which takes a bed if it did
+     * not hold one yet. The money has been captured by then, so a listing with no bed
+     * left is logged for the owner to resolve instead of failing the confirmation.
+     */
+    public Booking confirmPayment(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
+        Booking found = bookingRepository.findByRazorpayOrderId(razorpayOrderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found for order ID: " + razorpayOrderId));
+        return bookingAdmissionService.withAdmissionLock(found.getProperty().getId(), () -> {
+            Booking booking = bookingRepository.findById(found.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + found.getId()));
+            // A webhook may have recorded this payment already
+            if ("PAID".equalsIgnoreCase(booking.getPaymentStatus())
+                    && Objects.equals(booking.getRazorpayPaymentId(), razorpayPaymentId)) {
+                return booking;
+            }
+            return applyPayment(booking, razorpayPaymentId, razorpaySignature);
+        });
+    }
+
+    /**
+     * Confirm payments reported by gateway webhooks for bookings of one listing, in a
+     * single transaction under its admission lock. Bookings already paid are skipped.
+     *
+     * @param paymentIdsByOrderId captured payment per gateway order
+     * @return the bookings this call confirmed
+     */
+    public List<Booking> confirmPayments(Long propertyId, Map<String, String> paymentIdsByOrderId) {
+        return bookingAdmissionService.withAdmissionLock(propertyId, () -> {
+            List<Booking> confirmed = new ArrayList<>();
+            paymentIdsByOrderId.forEach((orderId, paymentId) -> bookingRepository.findByRazorpayOrderId(orderId)
+                    .filter(booking -> !"PAID".equalsIgnoreCase(booking.getPaymentStatus()))
+                    .ifPresent(booking -> confirmed.add(
+                            applyPayment(booking, paymentId, booking.getRazorpaySignature()))));
+            return confirmed;
+        });
+    }
+
+    /**
+     * Record failed payment attempts for unpaid bookings; a booking keeps its bed, if
+     * it holds one, and can be paid again with a new order
+     *
+     * @return how many bookings were marked FAILED
+     */
+    @Transactional
+    public int markPaymentsFailed(Collection<String> razorpayOrderIds) {
+        int failed = 0;
+        for (String orderId : razorpayOrderIds) {
+            Booking booking = bookingRepository.findByRazorpayOrderId(orderId).orElse(null);
+            if (booking != null && !"PAID".equalsIgnoreCase(booking.getPaymentStatus())) {
+                booking.setPaymentStatus("FAILED");
+                bookingRepository.save(booking);
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    // Runs under the listing's admission lock
+    private Booking applyPayment(Booking booking, String razorpayPaymentId, String razorpaySignature) {
+        boolean heldBed = BookingAvailabilityIndex.holdsBed(booking.getStatus());
+        booking.setRazorpayPaymentId(razorpayPaymentId);
+        booking.setRazorpaySignature(razorpaySignature);
+        booking.setPaymentStatus("PAID");
+        booking.setStatus("CONFIRMED");
+        Booking saved = bookingRepository.save(booking);
+        Long propertyId = saved.getProperty().getId();
+        if (!heldBed && !bookingAdmissionService.hasRoom(saved.getProperty(), saved.getCheckInDate(),
+                saved.getCheckOutDate(), saved.getId())) {
+            log.warn("Booking {} was paid but property {} has no bed left for its dates", saved.getId(), propertyId);
+        }
+        recountBeds(saved, heldBed);
+        eventPublisher.publishEvent(BookingChangedEvent.of(saved));
+
+        // Delivered after commit, so the payment response does not wait on SMTP
+        outboxService.enqueue(PaymentEmailHandler.TYPE, saved.getId(),
+                Map.of("bookingId", saved.getId(), "paymentId", String.valueOf(razorpayPaymentId)));
+        outboxService.enqueue(OwnerPaymentNotificationHandler.TYPE, saved.getId(),
+                Map.of("bookingId", saved.getId()));
+        outboxService.enqueue(ActionLogHandler.TYPE, saved.getId(), Map.of(
+                "userId", saved.getId().intValue(),
+                "email", String.valueOf(saved.getTenantEmail()),
+                "action", "PAYMENT_SUCCESS",
+                "details", String.format("BookingID: %d, PaymentID: %s, Amount: %.2f",
+                        saved.getId(), razorpayPaymentId, saved.getAmount())));
+        return saved;
+    }
+
+    // Tell the tenant, after commit, that an approved booking can now be paid
+    private void notifyIfApproved(Booking booking, String previousStatus) {
+        if ("APPROVED".equals(booking.getStatus()) && !"APPROVED".equals(previousStatus)) {
+            outboxService.enqueue(BookingApprovalEmailHandler.TYPE, booking.getId(),
+                    Map.of("bookingId", booking.getId()));
+        }
+    }
+
+    /**
+     * Recount the listing's free beds when a booking holds one or just stopped
+     * holding one; the count follows tonight's occupancy, admission is checked on
+     * the stay's dates by admit()
+     */
+    private void recountBeds(Booking booking, boolean heldBed) {
+        if (heldBed || BookingAvailabilityIndex.holdsBed(booking.getStatus())) {
+            bedInventoryService.recount(booking.getProperty().getId());
+        }
+    }
+
+    /**
+     * Reject a booking that is about to take a bed when its stay no longer fits
+     */
+    private void admit(Booking booking) {
+        if (!bookingAdmissionService.hasRoom(booking.getProperty(), booking.getCheckInDate(),
+                booking.getCheckOutDate(), booking.getId())) {
+            throw new BookingCapacityException("No bed free at property " + booking.getProperty().getId()
+                    + " for the dates of booking " + booking.getId());
+        }
+    }
+
+    private Long propertyIdOf(Long bookingId) {
+        return bookingRepository.findById(bookingId)
+                .map(booking -> booking.getProperty().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
-        booking.setStatus("APPROVED");
-        // Keep payment status as PENDING - client needs to pay after owner approval
-        booking.setPaymentStatus("PENDING");
-        return bookingRepository.save(booking);
     }
 
     // ✅ UPDATED: Enhanced convertToDTO with canReview logic and payment fields
@@ -1,14 +1,17 @@
 package com.residentia.service;
 
 import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.SuggestionDTO;
 import com.residentia.entity.Property;
+import com.residentia.repository.PropertyLongTextView;
 import com.residentia.repository.PropertyRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -17,16 +20,21 @@ public class ClientService {
     @Autowired
     private PropertyRepository propertyRepository;
 
+    @Autowired
+    private PropertyCatalogService propertyCatalogService;
+
+    @Autowired
+    private ListingSuggestIndex listingSuggestIndex;
+
+    @Autowired
+    private ListingCityIndex listingCityIndex;
+
     /**
      * Get all ACTIVE properties
      */
     public List<PropertyDTO> getAllAvailableProperties() {
         log.info("Fetching all available properties");
-        List<Property> properties = propertyRepository.findAll();
-        List<PropertyDTO> result = properties.stream()
-                .filter(p -> "ACTIVE".equalsIgnoreCase(p.getStatus()))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PropertyDTO> result = propertyCatalogService.findAll();
         log.info("Retrieved {} active properties", result.size());
         return result;
     }
@@ -36,29 +44,26 @@ public class ClientService {
      */
     public List<PropertyDTO> searchPropertiesByCity(String city) {
         log.info("Searching properties in city: {}", city);
-        List<Property> properties = propertyRepository.findAll();
-        List<PropertyDTO> result = properties.stream()
-                .filter(p -> "ACTIVE".equalsIgnoreCase(p.getStatus()) && 
-                           p.getCity() != null && p.getCity().equalsIgnoreCase(city))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PropertyDTO> result = propertyCatalogService.findByCity(city);
         log.info("Found {} properties in city: {}", result.size(), city);
         return result;
     }
 
+    /**
+     * Known city for a misspelled one (e.g. "Banglore" -> "Bangalore"), or null when
+     * the input already matches a city or state or nothing is close
+     */
+    public String correctCity(String city) {
+        propertyCatalogService.ensureLoaded();
+        return listingCityIndex.correct(city);
+    }
+
     /**
      * Search properties by budget range
      */
     public List<PropertyDTO> searchPropertiesByBudget(Integer minBudget, Integer maxBudget) {
         log.info("Searching properties with budget: {} - {}", minBudget, maxBudget);
-        List<Property> properties = propertyRepository.findAll();
-        List<PropertyDTO> result = properties.stream()
-                .filter(p -> "ACTIVE".equalsIgnoreCase(p.getStatus()) &&
-                           p.getRentAmount() != null &&
-                           p.getRentAmount() >= minBudget &&
-                           p.getRentAmount() <= maxBudget)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PropertyDTO> result = propertyCatalogService.findByRentBetween(minBudget, maxBudget);
         log.info("Found {} properties in budget range", result.size());
         return result;
     }
@@ -68,13 +73,7 @@ public class ClientService {
      */
     public List<PropertyDTO> searchPropertiesBySharingType(String sharingType) {
         log.info("Searching properties with sharing type: {}", sharingType);
-        List<Property> properties = propertyRepository.findAll();
-        List<PropertyDTO> result = properties.stream()
-                .filter(p -> "ACTIVE".equalsIgnoreCase(p.getStatus()) &&
-                           p.getSharingType() != null &&
-                           p.getSharingType().equalsIgnoreCase(sharingType))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PropertyDTO> result = propertyCatalogService.findBySharingType(sharingType);
         log.info("Found {} properties with sharing type: {}", result.size(), sharingType);
         return result;
     }
@@ -84,66 +83,39 @@ public class ClientService {
      */
     public List<PropertyDTO> searchPropertiesWithFood(Boolean foodIncluded) {
         log.info("Searching properties with food included: {}", foodIncluded);
-        List<Property> properties = propertyRepository.findAll();
-        List<PropertyDTO> result = properties.stream()
-                .filter(p -> "ACTIVE".equalsIgnoreCase(p.getStatus()) &&
-                           p.getFoodIncluded() != null &&
-                           p.getFoodIncluded().equals(foodIncluded))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PropertyDTO> result = propertyCatalogService.findByFoodIncluded(foodIncluded);
         log.info("Found {} properties with food: {}", result.size(), foodIncluded);
         return result;
     }
 
     /**
-     * Get single property by ID
+     * Autocomplete city, locality and property names from the in-memory suggestion index
      */
-    public PropertyDTO getPropertyById(Long propertyId) {
-        log.info("Fetching property: {}", propertyId);
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new RuntimeException("Property not found with id: " + propertyId));
-        return convertToDTO(property);
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        propertyCatalogService.ensureLoaded();
+        return listingSuggestIndex.suggest(prefix, limit);
     }
 
     /**
-     * Convert Property to PropertyDTO
-     * All property data including image URLs are accessible to clients.
-     * Image URLs are public Cloudinary URLs that work for all authenticated users.
+     * Get single property by ID
+     * ACTIVE listings start from the catalog card and only load the long text columns;
+     * anything else, or a card older than the row, falls back to the full row.
      */
-    private PropertyDTO convertToDTO(Property property) {
-        PropertyDTO dto = new PropertyDTO();
-        dto.setPropertyId(property.getId());
-        
-        if (property.getOwner() != null) {
-            dto.setOwnerId(property.getOwner().getId());
-        }
-        
-        dto.setPropertyName(property.getPropertyName());
-        dto.setAddress(property.getAddress());
-        dto.setCity(property.getCity());
-        dto.setState(property.getState());
-        dto.setPincode(property.getPincode());
-        
-        if (property.getRentAmount() != null) {
-            dto.setRentAmount(Double.valueOf(property.getRentAmount()));
-        }
-        
-        dto.setSharingType(property.getSharingType());
-        dto.setMaxCapacity(property.getMaxCapacity());
-        dto.setAvailableBeds(property.getAvailableBeds());
-        dto.setFoodIncluded(property.getFoodIncluded());
-        dto.setDescription(property.getDescription());
-        dto.setStatus(property.getStatus());
-        dto.setMapLink(property.getMapLink());
-        dto.setImageUrl(property.getImageUrl());
-        dto.setAmenities(property.getAmenities());
-        
-        if (property.getReviews() != null) {
-            dto.setReviews(property.getReviews());
-        } else {
-            dto.setReviews(0);
+    public PropertyDTO getPropertyById(Long propertyId) {
+        log.info("Fetching property: {}", propertyId);
+        PropertyDTO card = propertyCatalogService.findById(propertyId);
+        if (card != null) {
+            PropertyLongTextView longText = propertyRepository.findLongTextById(propertyId).orElse(null);
+            if (longText != null && Objects.equals(longText.getUpdatedAt(), card.getUpdatedAt())) {
+                PropertyDTO detail = new PropertyDTO();
+                BeanUtils.copyProperties(card, detail);
+                detail.setDescription(longText.getDescription());
+                detail.setImageUrl(longText.getImageUrl());
+                return detail;
+            }
         }
-        
-        return dto;
+        Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new RuntimeException("Property not found with id: " + propertyId));
+        return propertyCatalogService.toDTO(property);
     }
 }
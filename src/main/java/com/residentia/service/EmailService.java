@@ -1,17 +1,20 @@
 package com.residentia.service;
 
 import com.residentia.entity.Booking;
+import com.residentia.entity.Owner;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -20,105 +23,82 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy");
-    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
+    // Sends over a shared SMTP connection at a limited rate
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private EmailTemplateEngine templateEngine;
+
+    // No per-user language yet; every email goes out in this locale
+    @Value("${mail.templates.locale:en}")
+    private Locale locale;
+
+    private static final String FROM = "hspatil222002@gmail.com";
 
     public void sendPaymentConfirmationEmail(Booking booking, String razorpayPaymentId) throws MessagingException {
         log.info("Preparing payment confirmation email for booking ID: {}", booking.getId());
 
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        Map<String, Object> model = new HashMap<>();
+        model.put("bookingId", booking.getId());
+        model.put("clientName", booking.getTenantName());
+        model.put("propertyName", booking.getProperty() != null ? booking.getProperty().getPropertyName() : "N/A");
+        model.put("amount", booking.getAmount());
+        model.put("checkInDate", booking.getCheckInDate());
+        model.put("billDate", LocalDateTime.now());
+        model.put("paymentId", razorpayPaymentId);
 
-        helper.setTo(booking.getTenantEmail());
-        helper.setSubject("Payment Confirmation - Residentia PG Booking #" + booking.getId());
-        helper.setFrom("hspatil222002@gmail.com");
+        send(booking.getTenantEmail(), EmailTemplateEngine.PAYMENT_CONFIRMATION, model);
+        log.info("Payment confirmation email sent successfully to: {}", booking.getTenantEmail());
+    }
 
-        String emailContent = buildEmailContent(booking, razorpayPaymentId);
-        helper.setText(emailContent, true);
+    public void sendBookingApprovalEmail(Booking booking) throws MessagingException {
+        if (booking.getTenantEmail() == null) {
+            log.warn("No tenant email for booking ID: {}, skipping approval email", booking.getId());
+            return;
+        }
 
-        mailSender.send(message);
-        log.info("Payment confirmation email sent successfully to: {}", booking.getTenantEmail());
+        Map<String, Object> model = new HashMap<>();
+        model.put("bookingId", booking.getId());
+        model.put("tenantName", booking.getTenantName());
+        model.put("propertyName", booking.getProperty() != null ? booking.getProperty().getPropertyName() : "N/A");
+        model.put("checkInDate", booking.getCheckInDate());
+        model.put("checkOutDate", booking.getCheckOutDate());
+        model.put("amount", booking.getAmount());
+
+        send(booking.getTenantEmail(), EmailTemplateEngine.BOOKING_APPROVAL, model);
+        log.info("Booking approval email sent to: {}", booking.getTenantEmail());
+    }
+
+    public void sendOwnerPaymentNotification(Booking booking) throws MessagingException {
+        Owner owner = booking.getProperty() != null ? booking.getProperty().getOwner() : null;
+        if (owner == null || owner.getEmail() == null) {
+            log.warn("No owner email for booking ID: {}, skipping payment notification", booking.getId());
+            return;
+        }
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("bookingId", booking.getId());
+        model.put("ownerName", owner.getName());
+        model.put("tenantName", booking.getTenantName());
+        model.put("propertyName", booking.getProperty().getPropertyName());
+        model.put("amount", booking.getAmount());
+        model.put("checkInDate", booking.getCheckInDate());
+
+        send(owner.getEmail(), EmailTemplateEngine.OWNER_PAYMENT_NOTIFICATION, model);
+        log.info("Payment notification sent to owner: {}", owner.getEmail());
     }
 
-    private String buildEmailContent(Booking booking, String razorpayPaymentId) {
-        String propertyName = booking.getProperty() != null ? booking.getProperty().getPropertyName() : "N/A";
-        String clientName = booking.getTenantName();
-        Double amount = booking.getAmount();
-        LocalDateTime checkInDate = booking.getCheckInDate();
-        LocalDateTime billDate = LocalDateTime.now();
-
-        return "<!DOCTYPE html>" +
-                "<html>" +
-                "<head>" +
-                "    <style>" +
-                "        body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }" +
-                "        .container { max-width: 600px; margin: 0 auto; padding: 20px; background-color: #f9f9f9; }" +
-                "        .header { background-color: #4CAF50; color: white; padding: 20px; text-align: center; }" +
-                "        .content { background-color: white; padding: 30px; margin-top: 20px; border-radius: 5px; }" +
-                "        .detail-row { margin: 15px 0; padding: 10px; background-color: #f5f5f5; border-left: 4px solid #4CAF50; }" +
-                "        .label { font-weight: bold; color: #555; }" +
-                "        .value { color: #222; font-size: 16px; }" +
-                "        .footer { text-align: center; margin-top: 30px; padding: 20px; color: #777; font-size: 12px; }" +
-                "        .amount { font-size: 24px; color: #4CAF50; font-weight: bold; }" +
-                "        .success-icon { font-size: 48px; text-align: center; color: #4CAF50; margin: 20px 0; }" +
-                "    </style>" +
-                "</head>" +
-                "<body>" +
-                "    <div class='container'>" +
-                "        <div class='header'>" +
-                "            <h1>Payment Successful!</h1>" +
-                "        </div>" +
-                "        <div class='content'>" +
-                "            <div class='success-icon'>✓</div>" +
-                "            <p>Dear <strong>" + clientName + "</strong>,</p>" +
-                "            <p>Your payment has been successfully processed. Here are the details of your booking:</p>" +
-                "            " +
-                "            <div class='detail-row'>" +
-                "                <div class='label'>Booking ID:</div>" +
-                "                <div class='value'>#" + booking.getId() + "</div>" +
-                "            </div>" +
-                "            " +
-                "            <div class='detail-row'>" +
-                "                <div class='label'>Client Name:</div>" +
-                "                <div class='value'>" + clientName + "</div>" +
-                "            </div>" +
-                "            " +
-                "            <div class='detail-row'>" +
-                "                <div class='label'>PG Name:</div>" +
-                "                <div class='value'>" + propertyName + "</div>" +
-                "            </div>" +
-                "            " +
-                "            <div class='detail-row'>" +
-                "                <div class='label'>Amount Paid:</div>" +
-                "                <div class='amount'>₹ " + String.format("%.2f", amount) + "</div>" +
-                "            </div>" +
-                "            " +
-                "            <div class='detail-row'>" +
-                "                <div class='label'>Check-in Date:</div>" +
-                "                <div class='value'>" + checkInDate.format(DATETIME_FORMATTER) + "</div>" +
-                "            </div>" +
-                "            " +
-                "            <div class='detail-row'>" +
-                "                <div class='label'>Bill Issued Date:</div>" +
-                "                <div class='value'>" + billDate.format(DATETIME_FORMATTER) + "</div>" +
-                "            </div>" +
-                "            " +
-                "            <div class='detail-row'>" +
-                "                <div class='label'>Payment ID:</div>" +
-                "                <div class='value'>" + razorpayPaymentId + "</div>" +
-                "            </div>" +
-                "            " +
-                "            <p style='margin-top: 30px;'>Thank you for choosing Residentia. We look forward to providing you with excellent accommodation.</p>" +
-                "            " +
-                "            <p><strong>Note:</strong> Please keep this email for your records.</p>" +
-                "        </div>" +
-                "        " +
-                "        <div class='footer'>" +
-                "            <p>&copy; 2026 Residentia PG Management System</p>" +
-                "            <p>For queries, contact us at: hspatil222002@gmail.com</p>" +
-                "        </div>" +
-                "    </div>" +
-                "</body>" +
-                "</html>";
+    private void send(String to, String template, Map<String, ?> model) throws MessagingException {
+        EmailTemplateEngine.RenderedEmail email = templateEngine.render(template, locale, model);
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(to);
+        helper.setSubject(email.getSubject());
+        helper.setFrom(FROM);
+        helper.setText(email.getHtml(), true);
+
+        mailDispatcher.send(message);
     }
 }
@@ -0,0 +1,303 @@
+package com.residentia.service;
+
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An email template compiled once into literal segments and typed slots.
+ *
+ * Syntax:
+ * {{name}} text, HTML-escaped in bodies;
+ * {{name:money}} amount with two decimals and Indian digit grouping;
+ * {{name:number}} integer or decimal number;
+ * {{name:date}} and {{name:datetime}} date-time values, formatted for the template's locale;
+ * {{#name}} ... {{/name}} rendered only when name is not null.
+ *
+ * Every slot must be present in the model; a null value renders as nothing.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final Node[] nodes;
+
+    private EmailTemplate(String name, Node[] nodes) {
+        this.name = name;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @param escapeHtml false for plain-text parts such as the subject
+     * @throws IllegalArgumentException when the source is malformed
+     */
+    public static EmailTemplate compile(String name, String source, Locale locale, boolean escapeHtml) {
+        Parser parser = new Parser(name, source, locale, escapeHtml);
+        Node[] nodes = parser.parse(null);
+        return new EmailTemplate(name, nodes);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Append the rendered template to out
+     *
+     * @throws IllegalArgumentException when a slot is missing from the model or has the wrong type
+     */
+    public void render(Map<String, ?> model, StringBuilder out) {
+        render(nodes, model, out);
+    }
+
+    private void render(Node[] nodes, Map<String, ?> model, StringBuilder out) {
+        for (Node node : nodes) {
+            if (node instanceof Literal literal) {
+                out.append(literal.text);
+            } else if (node instanceof Slot slot) {
+                Object value = lookup(model, slot.name);
+                if (value != null) {
+                    slot.write(value, out, name);
+                }
+            } else {
+                Section section = (Section) node;
+                if (lookup(model, section.name) != null) {
+                    render(section.children, model, out);
+                }
+            }
+        }
+    }
+
+    private Object lookup(Map<String, ?> model, String slot) {
+        Object value = model.get(slot);
+        if (value == null && !model.containsKey(slot)) {
+            throw new IllegalArgumentException("Template " + name + " needs a value for " + slot);
+        }
+        return value;
+    }
+
+    private interface Node {
+    }
+
+    private static final class Literal implements Node {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final class Section implements Node {
+        private final String name;
+        private final Node[] children;
+
+        Section(String name, Node[] children) {
+            this.name = name;
+            this.children = children;
+        }
+    }
+
+    private enum SlotType { TEXT, MONEY, NUMBER, DATE, DATETIME }
+
+    private static final class Slot implements Node {
+        private final String name;
+        private final SlotType type;
+        private final boolean escapeHtml;
+        // Only for DATE and DATETIME slots
+        private final DateTimeFormatter formatter;
+
+        Slot(String name, SlotType type, boolean escapeHtml, DateTimeFormatter formatter) {
+            this.name = name;
+            this.type = type;
+            this.escapeHtml = escapeHtml;
+            this.formatter = formatter;
+        }
+
+        void write(Object value, StringBuilder out, String template) {
+            switch (type) {
+                case TEXT -> {
+                    String text = value.toString();
+                    if (escapeHtml) {
+                        escapeHtml(text, out);
+                    } else {
+                        out.append(text);
+                    }
+                }
+                case MONEY -> appendMoney(number(value, template), out);
+                case NUMBER -> {
+                    Number number = number(value, template);
+                    if (number instanceof Double || number instanceof Float) {
+                        out.append(number.doubleValue());
+                    } else {
+                        out.append(number.longValue());
+                    }
+                }
+                case DATE, DATETIME -> {
+                    if (!(value instanceof TemporalAccessor temporal)) {
+                        throw mismatch(template, "a date");
+                    }
+                    formatter.formatTo(temporal, out);
+                }
+            }
+        }
+
+        private Number number(Object value, String template) {
+            if (!(value instanceof Number number)) {
+                throw mismatch(template, "a number");
+            }
+            return number;
+        }
+
+        private IllegalArgumentException mismatch(String template, String expected) {
+            return new IllegalArgumentException("Slot " + name + " of template " + template + " expects " + expected);
+        }
+    }
+
+    static void escapeHtml(CharSequence text, StringBuilder out) {
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            String entity = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(text, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(text, start, length);
+    }
+
+    /**
+     * Two decimals with Indian grouping: 1234567.5 becomes 12,34,567.50
+     */
+    static void appendMoney(Number amount, StringBuilder out) {
+        long paise = Math.round(amount.doubleValue() * 100);
+        if (paise < 0) {
+            out.append('-');
+            paise = -paise;
+        }
+        String rupees = Long.toString(paise / 100);
+        int length = rupees.length();
+        // Last three digits form one group, the rest go in pairs
+        int head = length > 3 ? length - 3 : 0;
+        for (int i = 0; i < head; i++) {
+            if (i > 0 && (head - i) % 2 == 0) {
+                out.append(',');
+            }
+            out.append(rupees.charAt(i));
+        }
+        if (head > 0) {
+            out.append(',');
+        }
+        out.append(rupees, head, length);
+        long fraction = paise % 100;
+        out.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    private static final class Parser {
+        private final String template;
+        private final String source;
+        private final Locale locale;
+        private final boolean escapeHtml;
+        private int position;
+
+        Parser(String template, String source, Locale locale, boolean escapeHtml) {
+            this.template = template;
+            this.source = source;
+            this.locale = locale;
+            this.escapeHtml = escapeHtml;
+        }
+
+        /**
+         * Nodes up to the end of the source, or up to the {{/section}} tag closing section
+         */
+        Node[] parse(String section) {
+            List<Node> nodes = new ArrayList<>();
+            while (position < source.length()) {
+                int open = source.indexOf(OPEN, position);
+                if (open < 0) {
+                    nodes.add(new Literal(source.substring(position)));
+                    position = source.length();
+                    break;
+                }
+                if (open > position) {
+                    nodes.add(new Literal(source.substring(position, open)));
+                }
+                int close = source.indexOf(CLOSE, open + OPEN.length());
+                if (close < 0) {
+                    throw error("unclosed " + OPEN, open);
+                }
+                String tag = source.substring(open + OPEN.length(), close).trim();
+                position = close + CLOSE.length();
+
+                if (tag.startsWith("/")) {
+                    String closing = tag.substring(1).trim();
+                    if (!closing.equals(section)) {
+                        throw error("unexpected {{/" + closing + "}}", open);
+                    }
+                    return nodes.toArray(new Node[0]);
+                }
+                if (tag.startsWith("#")) {
+                    String name = name(tag.substring(1).trim(), open);
+                    nodes.add(new Section(name, parse(name)));
+                } else {
+                    nodes.add(slot(tag, open));
+                }
+            }
+            if (section != null) {
+                throw error("{{#" + section + "}} is not closed", source.length());
+            }
+            return nodes.toArray(new Node[0]);
+        }
+
+        private Slot slot(String tag, int at) {
+            int colon = tag.indexOf(':');
+            String name = name(colon < 0 ? tag : tag.substring(0, colon).trim(), at);
+            String format = colon < 0 ? "text" : tag.substring(colon + 1).trim();
+            return switch (format) {
+                case "text" -> new Slot(name, SlotType.TEXT, escapeHtml, null);
+                case "money" -> new Slot(name, SlotType.MONEY, escapeHtml, null);
+                case "number" -> new Slot(name, SlotType.NUMBER, escapeHtml, null);
+                case "date" -> new Slot(name, SlotType.DATE, escapeHtml,
+                        DateTimeFormatter.ofPattern("dd MMM yyyy", locale));
+                case "datetime" -> new Slot(name, SlotType.DATETIME, escapeHtml,
+                        DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a", locale));
+                default -> throw error("unknown slot format " + format, at);
+            };
+        }
+
+        private String name(String name, int at) {
+            if (name.isEmpty()) {
+                throw error("empty slot", at);
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (!Character.isLetterOrDigit(name.charAt(i))) {
+                    throw error("invalid slot name " + name, at);
+                }
+            }
+            return name;
+        }
+
+        private IllegalArgumentException error(String message, int at) {
+            int line = 1;
+            for (int i = 0; i < at && i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            return new IllegalArgumentException("Template " + template + " line " + line + ": " + message);
+        }
+    }
+}
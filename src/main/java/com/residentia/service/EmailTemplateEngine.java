@@ -0,0 +1,154 @@
+package com.residentia.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Email templates, compiled once at startup.
+ *
+ * Templates live in classpath:email-templates as name.language.html, e.g.
+ * payment-confirmation.hi.html. The first line is an HTML comment holding the subject:
+ * &lt;!-- subject: Booking #{{bookingId}} approved --&gt;. See EmailTemplate for the
+ * slot syntax. A locale without its own version of a template gets the default
+ * locale's, which every template must have.
+ *
+ * Rendering streams into a per-thread buffer that is reused across emails.
+ */
+@Slf4j
+@Service
+public class EmailTemplateEngine {
+
+    public static final String PAYMENT_CONFIRMATION = "payment-confirmation";
+    public static final String BOOKING_APPROVAL = "booking-approval";
+    public static final String OWNER_PAYMENT_NOTIFICATION = "owner-payment-notification";
+
+    private static final String LOCATION = "classpath*:email-templates/*.html";
+    private static final String SUBJECT_START = "<!-- subject:";
+    private static final String SUBJECT_END = "-->";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    // A buffer grown past this by an unusually large email is not kept
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    @Getter
+    @AllArgsConstructor
+    public static class RenderedEmail {
+        private final String subject;
+        private final String html;
+    }
+
+    private static final class CompiledEmail {
+        private final EmailTemplate subject;
+        private final EmailTemplate body;
+
+        CompiledEmail(EmailTemplate subject, EmailTemplate body) {
+            this.subject = subject;
+            this.body = body;
+        }
+    }
+
+    private final String defaultLanguage;
+
+    // Keyed by name + "." + language
+    private final Map<String, CompiledEmail> templates = new HashMap<>();
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(BUFFER_SIZE));
+
+    public EmailTemplateEngine(@Value("${mail.templates.default-locale:en}") String defaultLocale) {
+        this.defaultLanguage = Locale.forLanguageTag(defaultLocale).getLanguage();
+        load();
+    }
+
+    /**
+     * Render a template for locale, falling back to the default locale
+     *
+     * @throws IllegalArgumentException for an unknown template or a model that does not fit it
+     */
+    public RenderedEmail render(String name, Locale locale, Map<String, ?> model) {
+        CompiledEmail email = lookup(name, locale);
+        StringBuilder buffer = buffers.get();
+        try {
+            buffer.setLength(0);
+            email.subject.render(model, buffer);
+            String subject = buffer.toString();
+            buffer.setLength(0);
+            email.body.render(model, buffer);
+            return new RenderedEmail(subject, buffer.toString());
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private CompiledEmail lookup(String name, Locale locale) {
+        CompiledEmail email = locale != null ? templates.get(name + "." + locale.getLanguage()) : null;
+        if (email == null) {
+            email = templates.get(name + "." + defaultLanguage);
+        }
+        if (email == null) {
+            throw new IllegalArgumentException("No email template " + name);
+        }
+        return email;
+    }
+
+    private void load() {
+        Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver(getClass().getClassLoader()).getResources(LOCATION);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot list email templates", e);
+        }
+        Set<String> names = new HashSet<>();
+        for (Resource resource : resources) {
+            String file = resource.getFilename();
+            String[] parts = file != null ? file.split("\\.") : new String[0];
+            if (parts.length != 3) {
+                throw new IllegalStateException("Email template " + file + " is not named name.language.html");
+            }
+            String source;
+            try (InputStream in = resource.getInputStream()) {
+                source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read email template " + file, e);
+            }
+            templates.put(parts[0] + "." + parts[1], compile(file, source, Locale.forLanguageTag(parts[1])));
+            names.add(parts[0]);
+        }
+        for (String name : names) {
+            if (!templates.containsKey(name + "." + defaultLanguage)) {
+                throw new IllegalStateException("Email template " + name + " has no " + defaultLanguage + " version");
+            }
+        }
+        log.info("Compiled {} email templates, {} language versions", names.size(), templates.size());
+    }
+
+    private static CompiledEmail compile(String file, String source, Locale locale) {
+        if (!source.startsWith(SUBJECT_START)) {
+            throw new IllegalStateException("Email template " + file + " does not start with " + SUBJECT_START);
+        }
+        int end = source.indexOf(SUBJECT_END);
+        if (end < 0) {
+            throw new IllegalStateException("Email template " + file + " has an unclosed subject");
+        }
+        String subject = source.substring(SUBJECT_START.length(), end).trim();
+        String body = source.substring(end + SUBJECT_END.length()).stripLeading();
+        return new CompiledEmail(
+                EmailTemplate.compile(file + " subject", subject, locale, false),
+                EmailTemplate.compile(file, body, locale, true));
+    }
+}
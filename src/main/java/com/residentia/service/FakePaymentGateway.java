@@ -0,0 +1,77 @@
+package com.residentia.service;
+
+import com.residentia.exception.PaymentGatewayUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for Razorpay, for running the payment flow and load tests
+ * offline (payment.gateway.mode: fake).
+ *
+ * Orders take latency plus up to jitter to create and fail with failureRate; both can
+ * be changed while the application runs to replay a slow or failing gateway.
+ * Signatures use the same scheme as Razorpay with the configured secret, so a load
+ * script completes a payment by posting sign(orderId, paymentId) to verify-payment.
+ */
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final String keyId;
+    private final String keySecret;
+    private final AtomicLong orders = new AtomicLong();
+
+    private volatile Duration latency;
+    private volatile Duration jitter;
+    private volatile double failureRate;
+
+    public FakePaymentGateway(String keyId, String keySecret, Duration latency, Duration jitter, double failureRate) {
+        this.keyId = keyId;
+        this.keySecret = keySecret;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String createOrder(long amountPaise, String currency, String receipt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMillis = latency.toMillis() + (jitter.isZero() ? 0 : random.nextLong(jitter.toMillis() + 1));
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayUnavailableException("Interrupted while calling the payment gateway", e);
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new PaymentGatewayUnavailableException("Payment gateway returned 503 (simulated)");
+        }
+        return String.format("order_fake%014d", orders.incrementAndGet());
+    }
+
+    @Override
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        return PaymentSignatures.matches(keySecret, PaymentSignatures.paymentPayload(orderId, paymentId), signature);
+    }
+
+    @Override
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public String sign(String orderId, String paymentId) {
+        return PaymentSignatures.sign(keySecret, PaymentSignatures.paymentPayload(orderId, paymentId));
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void setJitter(Duration jitter) {
+        this.jitter = jitter;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+}
@@ -0,0 +1,185 @@
+package com.residentia.service;
+
+import com.residentia.entity.Property;
+import com.residentia.repository.PropertyLocationSourceView;
+import com.residentia.repository.PropertyRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves listing coordinates for the nearby search.
+ *
+ * Coordinates are read from the Google Maps link when it carries them; otherwise
+ * the pincode is looked up in the bundled offline centroid table (full 6-digit
+ * code first, then the 3-digit sorting district prefix). No network calls are made,
+ * so short links such as maps.app.goo.gl fall through to the pincode.
+ *
+ * The source is stored as the listing's locationPrecision. A district centre can be
+ * tens of km from the listing, so DISTRICT points are kept for display but left out
+ * of radius search (ListingGeoIndex).
+ */
+@Slf4j
+@Service
+public class GeoLocationService {
+
+    public static final String MAP_LINK = "MAP_LINK";
+    public static final String PINCODE = "PINCODE";
+    public static final String DISTRICT = "DISTRICT";
+
+    private static final String CENTROIDS = "geo/pincode-centroids.csv";
+
+    private static final String NUMBER = "(-?\\d{1,3}(?:\\.\\d+)?)";
+
+    // Most precise first: place pin (!3d..!4d..), query parameters, map centre (@lat,lon), geo: URI
+    private static final List<Pattern> LINK_PATTERNS = List.of(
+            Pattern.compile("!3d" + NUMBER + "!4d" + NUMBER),
+            Pattern.compile("[?&](?:q|query|ll|sll|center|destination|daddr)=(?:loc:)?" + NUMBER
+                    + "(?:,|%2C)(?:\\+|%20)?" + NUMBER, Pattern.CASE_INSENSITIVE),
+            Pattern.compile("@" + NUMBER + "," + NUMBER),
+            Pattern.compile("^geo:" + NUMBER + "," + NUMBER, Pattern.CASE_INSENSITIVE));
+
+    @Getter
+    @AllArgsConstructor
+    public static class Location {
+        private final double latitude;
+        private final double longitude;
+        // MAP_LINK, PINCODE or DISTRICT
+        private final String precision;
+    }
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private final Map<String, double[]> centroids = loadCentroids();
+
+    /**
+     * Set latitude/longitude on the property from its map link or pincode.
+     * Leaves the previous values untouched when neither resolves.
+     */
+    public void locate(Property property) {
+        Location location = resolve(property.getMapLink(), property.getPincode());
+        if (location != null) {
+            property.setLatitude(location.getLatitude());
+            property.setLongitude(location.getLongitude());
+            property.setLocationPrecision(location.getPrecision());
+        }
+    }
+
+    /**
+     * Coordinates for a listing, or null when unknown
+     */
+    public Location resolve(String mapLink, String pincode) {
+        double[] pin = parseMapLink(mapLink);
+        return pin != null ? new Location(pin[0], pin[1], MAP_LINK) : pincodeCentroid(pincode);
+    }
+
+    static double[] parseMapLink(String mapLink) {
+        if (mapLink == null || mapLink.isBlank()) {
+            return null;
+        }
+        String link = mapLink.trim();
+        for (Pattern pattern : LINK_PATTERNS) {
+            Matcher matcher = pattern.matcher(link);
+            if (matcher.find()) {
+                double latitude = Double.parseDouble(matcher.group(1));
+                double longitude = Double.parseDouble(matcher.group(2));
+                if (isValid(latitude, longitude)) {
+                    return new double[] { latitude, longitude };
+                }
+            }
+        }
+        return null;
+    }
+
+    Location pincodeCentroid(String pincode) {
+        if (pincode == null) {
+            return null;
+        }
+        String digits = pincode.replaceAll("\\s", "");
+        if (!digits.matches("\\d{6}")) {
+            return null;
+        }
+        double[] exact = centroids.get(digits);
+        if (exact != null) {
+            return new Location(exact[0], exact[1], PINCODE);
+        }
+        double[] district = centroids.get(digits.substring(0, 3));
+        return district != null ? new Location(district[0], district[1], DISTRICT) : null;
+    }
+
+    /**
+     * Fill coordinates for rows saved before the latitude/longitude columns existed,
+     * and the precision of rows located before it was recorded.
+     * Runs before the catalog loads so the first spatial index build sees them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void backfill() {
+        List<PropertyLocationSourceView> pending = propertyRepository.findWithoutLocation();
+        int resolved = 0;
+        for (PropertyLocationSourceView row : pending) {
+            Location location = resolve(row.getMapLink(), row.getPincode());
+            if (location != null) {
+                propertyRepository.updateLocation(row.getId(), location.getLatitude(), location.getLongitude(),
+                        location.getPrecision());
+                resolved++;
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Backfilled coordinates for {} of {} listings", resolved, pending.size());
+        }
+    }
+
+    private static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180
+                && !(latitude == 0 && longitude == 0);
+    }
+
+    private static Map<String, double[]> loadCentroids() {
+        Map<String, double[]> table = new HashMap<>();
+        ClassPathResource resource = new ClassPathResource(CENTROIDS);
+        if (!resource.exists()) {
+            log.warn("Pincode centroid table {} not found; only map links will be geocoded", CENTROIDS);
+            return table;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    continue;
+                }
+                table.put(parts[0].trim(), new double[] {
+                        Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()) });
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.error("Failed to load pincode centroid table: {}", e.getMessage(), e);
+        }
+        return table;
+    }
+}
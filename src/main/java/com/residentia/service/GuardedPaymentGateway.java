@@ -0,0 +1,115 @@
+package com.residentia.service;
+
+import com.residentia.exception.PaymentGatewayException;
+import com.residentia.exception.PaymentGatewayUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a slow or failing payment gateway from stalling request threads.
+ *
+ * Gateway calls run on a bulkhead: a fixed pool with a short queue, which refuses
+ * work once both are full. The request thread waits at most callTimeout for the
+ * result. A circuit breaker counts timeouts and unavailability, and while it is open
+ * calls fail at once with PaymentGatewayUnavailableException. Refusals from the
+ * gateway (PaymentGatewayException) show it is up and count as successes.
+ */
+@Slf4j
+public class GuardedPaymentGateway implements PaymentGateway, AutoCloseable {
+
+    private final PaymentGateway delegate;
+    private final ThreadPoolExecutor bulkhead;
+    private final long callTimeoutMillis;
+    private final GatewayCircuitBreaker breaker;
+
+    public GuardedPaymentGateway(PaymentGateway delegate, int threads, int queueSize,
+                                 Duration callTimeout, GatewayCircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.callTimeoutMillis = callTimeout.toMillis();
+        this.breaker = breaker;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.bulkhead = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueSize, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-gateway-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String createOrder(long amountPaise, String currency, String receipt) {
+        return call(() -> delegate.createOrder(amountPaise, currency, receipt));
+    }
+
+    @Override
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        // Local HMAC check, no gateway call
+        return delegate.verifyPaymentSignature(orderId, paymentId, signature);
+    }
+
+    @Override
+    public String getKeyId() {
+        return delegate.getKeyId();
+    }
+
+    public GatewayCircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    @Override
+    public void close() {
+        bulkhead.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> work) {
+        if (!breaker.tryAcquire()) {
+            throw new PaymentGatewayUnavailableException("Payment gateway is unavailable, try again shortly");
+        }
+        Future<T> future;
+        try {
+            future = bulkhead.submit(work);
+        } catch (RejectedExecutionException e) {
+            breaker.onAbandoned();
+            log.warn("Payment gateway bulkhead is full, rejecting call");
+            throw new PaymentGatewayUnavailableException("Payment gateway is busy, try again shortly", e);
+        }
+        try {
+            T result = future.get(callTimeoutMillis, TimeUnit.MILLISECONDS);
+            breaker.onSuccess();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            breaker.onFailure();
+            throw new PaymentGatewayUnavailableException("Payment gateway timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            breaker.onAbandoned();
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayUnavailableException("Interrupted while calling the payment gateway", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PaymentGatewayUnavailableException unavailable) {
+                breaker.onFailure();
+                throw unavailable;
+            }
+            if (cause instanceof PaymentGatewayException refused) {
+                breaker.onSuccess();
+                throw refused;
+            }
+            breaker.onFailure();
+            throw new PaymentGatewayUnavailableException("Payment gateway call failed: " + cause.getMessage(), cause);
+        }
+    }
+}
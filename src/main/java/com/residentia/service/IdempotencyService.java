@@ -0,0 +1,255 @@
+package com.residentia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.residentia.entity.IdempotencyRecord;
+import com.residentia.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for POST endpoints that clients retry.
+ *
+ * The first request with a key runs; retries of it get the stored response back,
+ * marked with an Idempotent-Replayed header. Outcomes are kept in a bounded Caffeine
+ * hot store and in the idempotency_keys table, which also arbitrates between nodes:
+ * a request claims its key with INSERT IGNORE before it runs. Duplicates arriving on
+ * this node while the first is running wait for its result; on another node they get
+ * 409 until it finishes.
+ *
+ * 2xx and 4xx outcomes are stored, except 409 and 429, which depend on timing. A 5xx
+ * or an exception releases the key, so the next retry runs again.
+ *
+ * Keys are scoped by operation and a SHA-256 of the principal, so an email of any
+ * length fits the scope column.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 128;
+
+    // A claim this old without an outcome belongs to a request that died
+    private static final long ABANDONED_AFTER_SECONDS = 120;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final int statusCode;
+        private final String contentType;
+        private final String body;
+
+        StoredResponse(String requestHash, int statusCode, String contentType, String body) {
+            this.requestHash = requestHash;
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private final Duration ttl;
+
+    private final Cache<String, StoredResponse> hotStore;
+
+    // Completed with the stored outcome, or null when there is nothing to replay
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(@Value("${idempotency.hot-store.max-entries:10000}") long maxEntries,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours) {
+        this.ttl = Duration.ofHours(ttlHours);
+        this.hotStore = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Run action once per (operation, principal, key) and replay its response to
+     * retries. Without a key the action just runs.
+     *
+     * @param request what identifies the request besides the key (path variables,
+     *                body); a key sent again with a different request gets 422
+     */
+    public ResponseEntity<?> execute(String operation, String principal, String key, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (!StringUtils.hasText(key)) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String scope = operation + "|" + sha256(principal != null ? principal : "ANONYMOUS");
+        String id = scope + "|" + key;
+        String requestHash = hash(request);
+
+        while (true) {
+            CompletableFuture<StoredResponse> running = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(id, running);
+            if (existing == null) {
+                try {
+                    return runOnce(scope, key, requestHash, running, action);
+                } finally {
+                    inFlight.remove(id, running);
+                    running.complete(null);
+                }
+            }
+            StoredResponse shared;
+            try {
+                shared = existing.join();
+            } catch (CompletionException e) {
+                shared = null;
+            }
+            if (shared != null) {
+                return replay(shared, requestHash);
+            }
+            // The first request left nothing to replay; run as a fresh one
+        }
+    }
+
+    @Scheduled(cron = "${idempotency.cleanup-cron:0 15 * * * *}")
+    public void deleteExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private ResponseEntity<?> runOnce(String scope, String key, String requestHash,
+                                      CompletableFuture<StoredResponse> running,
+                                      Supplier<ResponseEntity<?>> action) {
+        String id = scope + "|" + key;
+        StoredResponse stored = hotStore.getIfPresent(id);
+        if (stored != null) {
+            running.complete(stored);
+            return replay(stored, requestHash);
+        }
+
+        if (!claim(scope, key, requestHash)) {
+            IdempotencyRecord record = idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key)
+                    .orElse(null);
+            LocalDateTime now = LocalDateTime.now();
+            if (record != null && record.getStatusCode() != null && record.getExpiresAt().isAfter(now)) {
+                stored = new StoredResponse(record.getRequestHash(), record.getStatusCode(),
+                        record.getContentType(), record.getResponseBody());
+                hotStore.put(id, stored);
+                running.complete(stored);
+                return replay(stored, requestHash);
+            }
+            boolean stale = record == null || idempotencyRecordRepository.releaseStale(scope, key,
+                    now.minusSeconds(ABANDONED_AFTER_SECONDS), now) > 0;
+            if (!stale || !claim(scope, key, requestHash)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("A request with this " + HEADER + " is still being processed");
+            }
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(scope, key);
+            throw e;
+        }
+        stored = store(requestHash, response);
+        if (stored == null) {
+            idempotencyRecordRepository.release(scope, key);
+            return response;
+        }
+        idempotencyRecordRepository.complete(scope, key, stored.statusCode, stored.contentType, stored.body);
+        hotStore.put(id, stored);
+        running.complete(stored);
+        return response;
+    }
+
+    private boolean claim(String scope, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        return idempotencyRecordRepository.claim(scope, key, requestHash, now, now.plus(ttl)) == 1;
+    }
+
+    /**
+     * Replayable form of response, or null when it should not be replayed
+     */
+    private StoredResponse store(String requestHash, ResponseEntity<?> response) {
+        int status = response.getStatusCode().value();
+        boolean replayable = (status >= 200 && status < 300)
+                || (status >= 400 && status < 500 && status != 409 && status != 429);
+        if (!replayable) {
+            return null;
+        }
+        Object body = response.getBody();
+        if (body == null) {
+            return new StoredResponse(requestHash, status, null, null);
+        }
+        if (body instanceof String text) {
+            return new StoredResponse(requestHash, status, MediaType.TEXT_PLAIN_VALUE, text);
+        }
+        try {
+            return new StoredResponse(requestHash, status, MediaType.APPLICATION_JSON_VALUE,
+                    objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            log.warn("Response for an idempotent request could not be stored: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(HEADER + " was already used for a different request");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode)
+                .header(REPLAYED_HEADER, "true");
+        if (stored.contentType != null) {
+            builder.contentType(MediaType.parseMediaType(stored.contentType));
+        }
+        return builder.body(stored.body);
+    }
+
+    private String hash(Object request) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint idempotent request", e);
+        }
+    }
+
+    private static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.residentia.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes large JSON arrays straight to the response, one element at a time.
+ *
+ * Database-backed streams are consumed inside a read-only transaction (required by
+ * Spring Data Stream queries) and the persistence context is cleared periodically, so
+ * heap use stays flat regardless of table size and the first bytes reach the client
+ * while the query is still running.
+ */
+@Slf4j
+@Service
+public class JsonStreamingService {
+
+    // Flush the generator and detach loaded entities every N elements
+    private static final int FLUSH_INTERVAL = 200;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Stream rows produced by a repository Stream query
+     */
+    public StreamingResponseBody streamFromDatabase(Supplier<? extends Stream<?>> rows) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        return out -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<?> stream = rows.get()) {
+                writeArray(out, stream.iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeArray(OutputStream out, Iterator<?> elements) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            while (elements.hasNext()) {
+                generator.writeObject(elements.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            generator.writeEndArray();
+        }
+        log.debug("Streamed {} elements", count);
+    }
+}
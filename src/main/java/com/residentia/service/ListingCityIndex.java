@@ -0,0 +1,248 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant matching of client city input against the cities and states of
+ * ACTIVE listings.
+ *
+ * Names are folded (accents, case, punctuation and extra whitespace removed) and
+ * kept in a BK-tree under Levenshtein distance, so finding the nearest city only
+ * visits the subtrees whose distance band can still hold a match. The set of names
+ * is small and changes rarely, so the tree is rebuilt copy-on-write whenever a name
+ * appears or disappears and lookups never take a lock.
+ */
+@Slf4j
+@Service
+public class ListingCityIndex implements ListingIndex {
+
+    private enum NameType {
+        CITY,
+        STATE
+    }
+
+    private static final class Name {
+        private final String folded;
+        private final String label;
+        private final NameType type;
+
+        Name(String folded, String label, NameType type) {
+            this.folded = folded;
+            this.label = label;
+            this.type = type;
+        }
+    }
+
+    private static final class BkNode {
+        private final Name name;
+        private final Map<Integer, BkNode> children = new HashMap<>();
+
+        BkNode(Name name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Name> exact = new HashMap<>();
+        private BkNode root;
+    }
+
+    // Listing count per (type, folded name); guarded by this
+    private final Map<NameType, Map<String, Integer>> counts = new HashMap<>();
+    private final Map<String, String> labels = new HashMap<>();
+    private final Map<Long, PropertyDTO> entries = new HashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot();
+
+    @Override
+    public synchronized void rebuild(Collection<PropertyDTO> cards) {
+        counts.clear();
+        labels.clear();
+        entries.clear();
+        for (PropertyDTO card : cards) {
+            add(card);
+        }
+        publish();
+        log.info("City matcher built with {} cities", counts.getOrDefault(NameType.CITY, Map.of()).size());
+    }
+
+    @Override
+    public synchronized void index(Property property, PropertyDTO card) {
+        boolean changed = removeEntry(property.getId());
+        changed |= add(card);
+        if (changed) {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long propertyId) {
+        if (removeEntry(propertyId)) {
+            publish();
+        }
+    }
+
+    /**
+     * Canonical city for misspelled input, or null when the input already names a
+     * known city or state, or nothing is close enough
+     */
+    public String correct(String input) {
+        String folded = fold(input);
+        if (folded.isEmpty()) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        Name exact = current.exact.get(folded);
+        if (exact != null) {
+            // Case always matches; accents, punctuation and inner spacing only match once canonical
+            boolean sameKey = PropertyCatalogService.fold(exact.label).equals(PropertyCatalogService.fold(input));
+            return exact.type == NameType.CITY && !sameKey ? exact.label : null;
+        }
+        Name nearest = nearest(current.root, folded, maxDistance(folded));
+        return nearest != null ? nearest.label : null;
+    }
+
+    private boolean add(PropertyDTO card) {
+        entries.put(card.getPropertyId(), card);
+        boolean added = increment(NameType.CITY, card.getCity());
+        return increment(NameType.STATE, card.getState()) || added;
+    }
+
+    private boolean removeEntry(Long propertyId) {
+        PropertyDTO previous = entries.remove(propertyId);
+        if (previous == null) {
+            return false;
+        }
+        boolean removed = decrement(NameType.CITY, previous.getCity());
+        return decrement(NameType.STATE, previous.getState()) || removed;
+    }
+
+    // True when the name is new
+    private boolean increment(NameType type, String name) {
+        if (!StringUtils.hasText(name)) {
+            return false;
+        }
+        String folded = fold(name);
+        labels.putIfAbsent(type + "|" + folded, name.trim());
+        return counts.computeIfAbsent(type, k -> new HashMap<>()).merge(folded, 1, Integer::sum) == 1;
+    }
+
+    // True when the last listing with the name went away
+    private boolean decrement(NameType type, String name) {
+        if (!StringUtils.hasText(name)) {
+            return false;
+        }
+        String folded = fold(name);
+        Map<String, Integer> typeCounts = counts.getOrDefault(type, new HashMap<>());
+        Integer remaining = typeCounts.computeIfPresent(folded, (k, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            labels.remove(type + "|" + folded);
+            return true;
+        }
+        return false;
+    }
+
+    private void publish() {
+        Snapshot next = new Snapshot();
+        List<Name> names = new ArrayList<>();
+        // Cities first, so a name that is both a city and a state resolves as the city
+        for (NameType type : NameType.values()) {
+            for (String folded : counts.getOrDefault(type, Map.of()).keySet()) {
+                if (!next.exact.containsKey(folded)) {
+                    Name name = new Name(folded, labels.get(type + "|" + folded), type);
+                    next.exact.put(folded, name);
+                    names.add(name);
+                }
+            }
+        }
+        for (Name name : names) {
+            next.root = insert(next.root, name);
+        }
+        snapshot = next;
+    }
+
+    private static BkNode insert(BkNode root, Name name) {
+        if (root == null) {
+            return new BkNode(name);
+        }
+        BkNode node = root;
+        while (true) {
+            int distance = levenshtein(name.folded, node.name.folded);
+            BkNode child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new BkNode(name));
+                return root;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Nearest CITY within maxDistance; states take part in the search (and win ties)
+     * so that a misspelled state name is not silently turned into some city
+     */
+    private static Name nearest(BkNode root, String target, int maxDistance) {
+        if (root == null) {
+            return null;
+        }
+        Name best = null;
+        int bestDistance = maxDistance + 1;
+        List<BkNode> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            BkNode node = pending.remove(pending.size() - 1);
+            int distance = levenshtein(target, node.name.folded);
+            if (distance < bestDistance || (distance == bestDistance && best != null
+                    && node.name.type == NameType.STATE && best.type == NameType.CITY)) {
+                best = node.name;
+                bestDistance = distance;
+            }
+            // Triangle inequality: only children in [d - best, d + best] can beat the current best
+            for (Map.Entry<Integer, BkNode> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= bestDistance) {
+                    pending.add(child.getValue());
+                }
+            }
+        }
+        return best != null && best.type == NameType.CITY ? best : null;
+    }
+
+    // Longer names tolerate more typos
+    private static int maxDistance(String folded) {
+        int length = folded.length();
+        return length <= 4 ? 1 : length <= 8 ? 2 : 3;
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static String fold(String value) {
+        return ListingSuggestIndex.fold(value);
+    }
+}
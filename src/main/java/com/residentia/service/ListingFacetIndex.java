@@ -0,0 +1,300 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.PropertySearchCriteria;
+import com.residentia.entity.Property;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Facet counts for the client catalog.
+ *
+ * Keeps one compressed (Roaring) bitmap of ACTIVE property ids per city, state,
+ * sharing type, food flag, amenity and rent bucket. A facet count is the
+ * intersection cardinality of the value's bitmap with the bitmap of everything the
+ * other active filters allow, so selecting a city still shows how many listings
+ * each other city has (standard disjunctive faceting).
+ */
+@Slf4j
+@Service
+public class ListingFacetIndex implements ListingIndex {
+
+    public static final String CITY = "city";
+    public static final String STATE = "state";
+    public static final String SHARING_TYPE = "sharingType";
+    public static final String FOOD_INCLUDED = "foodIncluded";
+    public static final String AMENITIES = "amenities";
+    public static final String RENT = "rent";
+
+    private static final List<String> FACETS = List.of(CITY, STATE, SHARING_TYPE, FOOD_INCLUDED, AMENITIES, RENT);
+
+    // Lower bounds of the rent buckets; the last bucket is open-ended
+    private static final int[] RENT_BUCKETS = { 0, 5000, 8000, 12000, 20000 };
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    // facet -> folded value -> property ids
+    private final Map<String, Map<String, RoaringBitmap>> bitmaps = new HashMap<>();
+    // facet -> folded value -> label shown to clients
+    private final Map<String, Map<String, String>> labels = new HashMap<>();
+    // Exact rent -> property ids, for arbitrary budget ranges
+    private final TreeMap<Integer, RoaringBitmap> rents = new TreeMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap available = new RoaringBitmap();
+    // Indexed card per listing, so a listing can be unindexed with its old values
+    private final Map<Integer, PropertyDTO> entries = new HashMap<>();
+
+    @Override
+    public void rebuild(Collection<PropertyDTO> cards) {
+        lock.writeLock().lock();
+        try {
+            bitmaps.clear();
+            labels.clear();
+            rents.clear();
+            all.clear();
+            available.clear();
+            entries.clear();
+            for (PropertyDTO card : cards) {
+                add(card);
+            }
+            bitmaps.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Facet index built with {} listings", cards.size());
+    }
+
+    @Override
+    public void index(Property property, PropertyDTO card) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(property.getId());
+            add(card);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts per facet value for the listings matching criteria.
+     * For each facet, its own filter is left out so the other values stay selectable.
+     *
+     * @param restrictTo ids already narrowed by a non-facet filter (e.g. text matches), or null
+     */
+    public Map<String, Map<String, Integer>> counts(PropertySearchCriteria criteria, RoaringBitmap restrictTo) {
+        return counts(criteria, restrictTo, null);
+    }
+
+    /**
+     * @param exclude ids ruled out by a non-facet filter (e.g. fully booked dates), or null
+     */
+    public Map<String, Map<String, Integer>> counts(PropertySearchCriteria criteria, RoaringBitmap restrictTo,
+                                                    RoaringBitmap exclude) {
+        Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = restrictTo != null ? RoaringBitmap.and(all, restrictTo) : all.clone();
+            if (exclude != null) {
+                base.andNot(exclude);
+            }
+            if (Boolean.TRUE.equals(criteria.getAvailableOnly())) {
+                base.and(available);
+            }
+            // Amenities are conjunctive, so they narrow every facet including their own
+            if (StringUtils.hasText(criteria.getAmenities())) {
+                long mask = AmenityDictionary.parseFilter(criteria.getAmenities());
+                for (String amenity : AmenityDictionary.labels(mask)) {
+                    base.and(valueBitmap(AMENITIES, amenity));
+                }
+            }
+
+            Map<String, RoaringBitmap> filters = new HashMap<>();
+            if (StringUtils.hasText(criteria.getCity())) {
+                filters.put(CITY, valueBitmap(CITY, criteria.getCity()));
+            }
+            if (StringUtils.hasText(criteria.getSharingType())) {
+                filters.put(SHARING_TYPE, valueBitmap(SHARING_TYPE, criteria.getSharingType()));
+            }
+            if (criteria.getFoodIncluded() != null) {
+                filters.put(FOOD_INCLUDED, valueBitmap(FOOD_INCLUDED, criteria.getFoodIncluded().toString()));
+            }
+            if (criteria.getMinBudget() != null || criteria.getMaxBudget() != null) {
+                filters.put(RENT, rentBetween(criteria.getMinBudget(), criteria.getMaxBudget()));
+            }
+
+            for (String facet : FACETS) {
+                RoaringBitmap scope = base.clone();
+                filters.forEach((filteredFacet, bitmap) -> {
+                    if (!filteredFacet.equals(facet)) {
+                        scope.and(bitmap);
+                    }
+                });
+                result.put(facet, countValues(facet, scope));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private Map<String, Integer> countValues(String facet, RoaringBitmap scope) {
+        Map<String, RoaringBitmap> values = bitmaps.getOrDefault(facet, Map.of());
+        Map<String, String> facetLabels = labels.getOrDefault(facet, Map.of());
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        values.forEach((value, bitmap) -> {
+            int count = RoaringBitmap.andCardinality(scope, bitmap);
+            if (count > 0) {
+                counts.add(Map.entry(facetLabels.getOrDefault(value, value), count));
+            }
+        });
+        if (RENT.equals(facet)) {
+            // Buckets keep their natural order
+            counts.sort(Map.Entry.comparingByKey((a, b) -> Integer.compare(bucketStart(a), bucketStart(b))));
+        } else {
+            counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+        }
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        counts.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return ordered;
+    }
+
+    private RoaringBitmap valueBitmap(String facet, String value) {
+        RoaringBitmap bitmap = bitmaps.getOrDefault(facet, Map.of()).get(PropertyCatalogService.fold(value));
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    private RoaringBitmap rentBetween(Integer minRent, Integer maxRent) {
+        int from = minRent != null ? minRent : Integer.MIN_VALUE;
+        int to = maxRent != null ? maxRent : Integer.MAX_VALUE;
+        if (from > to) {
+            return new RoaringBitmap();
+        }
+        return RoaringBitmap.or(rents.subMap(from, true, to, true).values().iterator());
+    }
+
+    private void add(PropertyDTO card) {
+        int id = toIntId(card.getPropertyId());
+        entries.put(id, card);
+        all.add(id);
+        if (card.getAvailableBeds() != null && card.getAvailableBeds() > 0) {
+            available.add(id);
+        }
+        if (card.getRentAmount() != null) {
+            rents.computeIfAbsent(card.getRentAmount().intValue(), k -> new RoaringBitmap()).add(id);
+        }
+        forEachValue(card, (facet, label) -> {
+            String value = PropertyCatalogService.fold(label);
+            bitmaps.computeIfAbsent(facet, k -> new HashMap<>())
+                    .computeIfAbsent(value, k -> new RoaringBitmap())
+                    .add(id);
+            labels.computeIfAbsent(facet, k -> new HashMap<>()).putIfAbsent(value, label.trim());
+        });
+    }
+
+    private void removeLocked(Long propertyId) {
+        if (propertyId == null) {
+            return;
+        }
+        int id = toIntId(propertyId);
+        PropertyDTO previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        all.remove(id);
+        available.remove(id);
+        if (previous.getRentAmount() != null) {
+            int rent = previous.getRentAmount().intValue();
+            RoaringBitmap ids = rents.get(rent);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    rents.remove(rent);
+                }
+            }
+        }
+        forEachValue(previous, (facet, label) -> {
+            String value = PropertyCatalogService.fold(label);
+            Map<String, RoaringBitmap> values = bitmaps.get(facet);
+            RoaringBitmap ids = values != null ? values.get(value) : null;
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    values.remove(value);
+                    labels.get(facet).remove(value);
+                }
+            }
+        });
+    }
+
+    /**
+     * Every (facet, label) pair a card is counted under
+     */
+    private static void forEachValue(PropertyDTO card, BiConsumer<String, String> consumer) {
+        if (StringUtils.hasText(card.getCity())) {
+            consumer.accept(CITY, card.getCity());
+        }
+        if (StringUtils.hasText(card.getState())) {
+            consumer.accept(STATE, card.getState());
+        }
+        if (StringUtils.hasText(card.getSharingType())) {
+            consumer.accept(SHARING_TYPE, card.getSharingType());
+        }
+        if (card.getFoodIncluded() != null) {
+            consumer.accept(FOOD_INCLUDED, card.getFoodIncluded().toString());
+        }
+        for (String amenity : AmenityDictionary.labels(card.getAmenityMask())) {
+            consumer.accept(AMENITIES, amenity);
+        }
+        if (card.getRentAmount() != null) {
+            consumer.accept(RENT, rentBucket(card.getRentAmount().intValue()));
+        }
+    }
+
+    static String rentBucket(int rent) {
+        for (int i = RENT_BUCKETS.length - 1; i > 0; i--) {
+            if (rent >= RENT_BUCKETS[i]) {
+                return i == RENT_BUCKETS.length - 1
+                        ? RENT_BUCKETS[i] + "+"
+                        : RENT_BUCKETS[i] + "-" + (RENT_BUCKETS[i + 1] - 1);
+            }
+        }
+        return RENT_BUCKETS[0] + "-" + (RENT_BUCKETS[1] - 1);
+    }
+
+    private static int bucketStart(String label) {
+        int end = 0;
+        while (end < label.length() && Character.isDigit(label.charAt(end))) {
+            end++;
+        }
+        return Integer.parseInt(label.substring(0, end));
+    }
+
+    private static int toIntId(Long propertyId) {
+        // Bitmaps are 32-bit; listing ids stay far below Integer.MAX_VALUE
+        return Math.toIntExact(propertyId);
+    }
+}
@@ -0,0 +1,180 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Spatial index of ACTIVE listings on a fixed lat/lon grid.
+ *
+ * Each listing sits in one CELL_DEGREES x CELL_DEGREES bucket (about 2 km at Indian
+ * latitudes); a radius query only visits the buckets overlapping its bounding box
+ * and checks the exact haversine distance for listings inside them. Listings located
+ * only to their pincode's district centre are not indexed: their distance would
+ * look exact while being off by tens of km.
+ */
+@Slf4j
+@Service
+public class ListingGeoIndex implements ListingIndex {
+
+    private static final double CELL_DEGREES = 0.02;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Nearby {
+        private final long propertyId;
+        private final double distanceKm;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, double[]> locations = new HashMap<>();
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+
+    @Override
+    public void rebuild(Collection<PropertyDTO> cards) {
+        lock.writeLock().lock();
+        try {
+            locations.clear();
+            cells.clear();
+            for (PropertyDTO card : cards) {
+                if (searchable(card)) {
+                    add(card.getPropertyId(), card.getLatitude(), card.getLongitude());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Spatial index built with {} located listings", size());
+    }
+
+    @Override
+    public void index(Property property, PropertyDTO card) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(property.getId());
+            if (searchable(card)) {
+                add(property.getId(), card.getLatitude(), card.getLongitude());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Listings within radiusKm of the point accepted by the filter, nearest first
+     */
+    public List<Nearby> findWithin(double latitude, double longitude, double radiusKm, LongPredicate filter) {
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        // Clamp near the poles where a degree of longitude shrinks to nothing
+        double cosLatitude = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double longitudeSpan = Math.min(radiusKm / (KM_PER_DEGREE * cosLatitude), 180);
+
+        long minRow = cell(latitude - latitudeSpan);
+        long maxRow = cell(latitude + latitudeSpan);
+        long minColumn = cell(longitude - longitudeSpan);
+        long maxColumn = cell(longitude + longitudeSpan);
+
+        List<Nearby> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (long row = minRow; row <= maxRow; row++) {
+                for (long column = minColumn; column <= maxColumn; column++) {
+                    Set<Long> ids = cells.get(key(row, column));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        double[] location = locations.get(id);
+                        double distance = distanceKm(latitude, longitude, location[0], location[1]);
+                        if (distance <= radiusKm && filter.test(id)) {
+                            result.add(new Nearby(id, distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparingDouble(Nearby::getDistanceKm).thenComparingLong(Nearby::getPropertyId));
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return locations.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static double distanceKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double dLatitude = Math.toRadians(toLatitude - fromLatitude);
+        double dLongitude = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude))
+                * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    static boolean searchable(PropertyDTO card) {
+        return card.getLatitude() != null && card.getLongitude() != null
+                && !GeoLocationService.DISTRICT.equals(card.getLocationPrecision());
+    }
+
+    private void add(Long propertyId, double latitude, double longitude) {
+        locations.put(propertyId, new double[] { latitude, longitude });
+        cells.computeIfAbsent(key(cell(latitude), cell(longitude)), k -> new HashSet<>()).add(propertyId);
+    }
+
+    private void removeLocked(Long propertyId) {
+        double[] location = locations.remove(propertyId);
+        if (location == null) {
+            return;
+        }
+        long key = key(cell(location[0]), cell(location[1]));
+        Set<Long> ids = cells.get(key);
+        if (ids != null) {
+            ids.remove(propertyId);
+            if (ids.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) | (column & 0xffffffffL);
+    }
+}
@@ -0,0 +1,27 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+
+import java.util.Collection;
+
+/**
+ * Secondary in-memory index kept in step with the listing catalog.
+ *
+ * PropertyCatalogService calls every ListingIndex bean when it reloads and on each
+ * incremental property write, so indexes never need their own event wiring.
+ */
+public interface ListingIndex {
+
+    /**
+     * Rebuild the whole index; cards are the freshly loaded catalog entries
+     */
+    void rebuild(Collection<PropertyDTO> cards);
+
+    /**
+     * Insert or replace an ACTIVE listing; card is its new catalog entry
+     */
+    void index(Property property, PropertyDTO card);
+
+    void remove(Long propertyId);
+}
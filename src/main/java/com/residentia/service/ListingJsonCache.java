@@ -0,0 +1,147 @@
+package com.residentia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-serialized JSON of every catalog card.
+ *
+ * Each ACTIVE listing's card is rendered to UTF-8 once, when it enters the catalog,
+ * and kept until its updatedAt changes. List responses are then written by copying
+ * the stored fragments between brackets and commas, so a catalog request does no
+ * Jackson work and allocates one buffer for the whole body.
+ */
+@Slf4j
+@Service
+public class ListingJsonCache implements ListingIndex {
+
+    private static final class Fragment {
+        // The card the bytes were rendered from
+        private final PropertyDTO card;
+        private final byte[] json;
+
+        Fragment(PropertyDTO card, byte[] json) {
+            this.card = card;
+            this.json = json;
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile ObjectWriter writer;
+
+    private final Map<Long, Fragment> fragments = new ConcurrentHashMap<>();
+
+    @Override
+    public void rebuild(Collection<PropertyDTO> cards) {
+        Map<Long, Fragment> next = new HashMap<>();
+        int rendered = 0;
+        for (PropertyDTO card : cards) {
+            Fragment fragment = fragments.get(card.getPropertyId());
+            // Bulk UPDATEs skip @PreUpdate, so an unchanged stamp alone is not trusted on resync
+            if (fragment == null || !Objects.equals(fragment.card.getUpdatedAt(), card.getUpdatedAt())
+                    || !fragment.card.equals(card)) {
+                fragment = render(card);
+                rendered++;
+            } else {
+                fragment = new Fragment(card, fragment.json);
+            }
+            next.put(card.getPropertyId(), fragment);
+        }
+        fragments.keySet().retainAll(next.keySet());
+        fragments.putAll(next);
+        log.info("JSON cache holds {} cards ({} rendered)", next.size(), rendered);
+    }
+
+    @Override
+    public void index(Property property, PropertyDTO card) {
+        fragments.put(card.getPropertyId(), render(card));
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        fragments.remove(propertyId);
+    }
+
+    /**
+     * JSON of a card; the stored bytes when they were rendered from this card or one
+     * with the same updatedAt, a fresh rendering otherwise
+     */
+    public byte[] fragment(PropertyDTO card) {
+        Fragment fragment = fragments.get(card.getPropertyId());
+        if (fragment != null && (fragment.card == card || (card.getUpdatedAt() != null
+                && card.getUpdatedAt().equals(fragment.card.getUpdatedAt())))) {
+            return fragment.json;
+        }
+        return render(card).json;
+    }
+
+    /**
+     * The cards as one JSON array, sized exactly before copying
+     */
+    public byte[] toJsonArray(List<PropertyDTO> cards) {
+        byte[][] parts = new byte[cards.size()][];
+        int length = 2 + Math.max(cards.size() - 1, 0);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = fragment(cards.get(i));
+            length += parts[i].length;
+        }
+        byte[] json = new byte[length];
+        int position = 0;
+        json[position++] = '[';
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                json[position++] = ',';
+            }
+            System.arraycopy(parts[i], 0, json, position, parts[i].length);
+            position += parts[i].length;
+        }
+        json[position] = ']';
+        return json;
+    }
+
+    /**
+     * Write the cards as a JSON array without building the whole body first
+     */
+    public void writeJsonArray(OutputStream out, List<PropertyDTO> cards) throws IOException {
+        out.write('[');
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(fragment(cards.get(i)));
+        }
+        out.write(']');
+        out.flush();
+    }
+
+    private Fragment render(PropertyDTO card) {
+        ObjectWriter cardWriter = writer;
+        if (cardWriter == null) {
+            cardWriter = objectMapper.writerFor(PropertyDTO.class);
+            writer = cardWriter;
+        }
+        try {
+            return new Fragment(card, cardWriter.writeValueAsBytes(card));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
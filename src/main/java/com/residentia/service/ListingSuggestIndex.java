@@ -0,0 +1,356 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.SuggestionDTO;
+import com.residentia.entity.Property;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Autocomplete over city, locality and property names of ACTIVE listings.
+ *
+ * Names are stored in a radix tree (compressed trie) keyed by their folded form and
+ * by every word inside them, so "mumbai" also finds "Navi Mumbai". Each node caches
+ * the best MAX_SUGGESTIONS terms of its subtree, ranked by listing count, so a
+ * lookup is one walk down the prefix with no scoring at query time. Writes only
+ * recompute the caches on the paths of the keys they touch.
+ */
+@Slf4j
+@Service
+public class ListingSuggestIndex implements ListingIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Declaration order breaks ties between equally weighted suggestions
+    public enum TermType {
+        CITY,
+        LOCALITY,
+        PROPERTY
+    }
+
+    // Most listings first, then cities before localities before names, then alphabetical
+    private static final Comparator<Term> RANK = Comparator.comparingInt((Term term) -> term.weight).reversed()
+            .thenComparing(term -> term.type)
+            .thenComparing(term -> term.label);
+
+    private static final class Term {
+        private final TermType type;
+        private final String label;
+        private final List<String> keys;
+        private int weight;
+
+        Term(TermType type, String label, List<String> keys) {
+            this.type = type;
+            this.label = label;
+            this.keys = keys;
+        }
+    }
+
+    private static final class Node {
+        // Label of the edge leading to this node
+        private String edge;
+        private final Map<Character, Node> children = new HashMap<>();
+        // Terms whose key ends exactly here
+        private final List<Term> terms = new ArrayList<>(1);
+        // Best MAX_SUGGESTIONS terms in this subtree
+        private List<Term> top = List.of();
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private Node root = new Node("");
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<Long, List<Term>> termsByListing = new HashMap<>();
+
+    @Override
+    public void rebuild(Collection<PropertyDTO> cards) {
+        lock.writeLock().lock();
+        try {
+            root = new Node("");
+            terms.clear();
+            termsByListing.clear();
+            for (PropertyDTO card : cards) {
+                addListing(card, false);
+            }
+            // One bottom-up pass instead of refreshing paths per listing
+            computeTops(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Suggestion index built with {} terms", terms.size());
+    }
+
+    @Override
+    public void index(Property property, PropertyDTO card) {
+        lock.writeLock().lock();
+        try {
+            removeListing(property.getId());
+            addListing(card, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeListing(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches for a typed prefix, at most limit (capped at MAX_SUGGESTIONS)
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = fold(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            String remaining = key;
+            while (!remaining.isEmpty()) {
+                Node child = node.children.get(remaining.charAt(0));
+                if (child == null) {
+                    return new ArrayList<>();
+                }
+                if (remaining.startsWith(child.edge)) {
+                    remaining = remaining.substring(child.edge.length());
+                } else if (child.edge.startsWith(remaining)) {
+                    remaining = "";
+                } else {
+                    return new ArrayList<>();
+                }
+                node = child;
+            }
+            return node.top.stream()
+                    .limit(Math.min(limit, MAX_SUGGESTIONS))
+                    .map(term -> new SuggestionDTO(term.label, term.type.name(), term.weight))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addListing(PropertyDTO card, boolean refresh) {
+        List<Term> listingTerms = new ArrayList<>();
+        addTerm(listingTerms, TermType.CITY, card.getCity(), refresh);
+        addTerm(listingTerms, TermType.LOCALITY, locality(card.getAddress(), card.getCity(), card.getState()), refresh);
+        addTerm(listingTerms, TermType.PROPERTY, card.getPropertyName(), refresh);
+        termsByListing.put(card.getPropertyId(), listingTerms);
+    }
+
+    private void addTerm(List<Term> listingTerms, TermType type, String name, boolean refresh) {
+        if (!StringUtils.hasText(name) || fold(name).isEmpty()) {
+            return;
+        }
+        String folded = fold(name);
+        Term term = terms.get(type + "|" + folded);
+        if (term == null) {
+            term = new Term(type, name.trim().replaceAll("\\s+", " "), keys(folded));
+            terms.put(type + "|" + folded, term);
+            for (String key : term.keys) {
+                insert(root, key, term);
+            }
+        }
+        term.weight++;
+        listingTerms.add(term);
+        if (refresh) {
+            term.keys.forEach(this::refresh);
+        }
+    }
+
+    private void removeListing(Long propertyId) {
+        List<Term> listingTerms = termsByListing.remove(propertyId);
+        if (listingTerms == null) {
+            return;
+        }
+        for (Term term : listingTerms) {
+            term.weight--;
+            if (term.weight == 0) {
+                terms.remove(term.type + "|" + fold(term.label));
+                term.keys.forEach(key -> delete(key, term));
+            }
+            term.keys.forEach(this::refresh);
+        }
+    }
+
+    private void insert(Node node, String key, Term term) {
+        if (key.isEmpty()) {
+            if (!node.terms.contains(term)) {
+                node.terms.add(term);
+            }
+            return;
+        }
+        Node child = node.children.get(key.charAt(0));
+        if (child == null) {
+            Node leaf = new Node(key);
+            leaf.terms.add(term);
+            node.children.put(key.charAt(0), leaf);
+            return;
+        }
+        int common = commonPrefixLength(key, child.edge);
+        if (common < child.edge.length()) {
+            // Split the edge: node -> middle -> child
+            Node middle = new Node(child.edge.substring(0, common));
+            child.edge = child.edge.substring(common);
+            middle.children.put(child.edge.charAt(0), child);
+            node.children.put(middle.edge.charAt(0), middle);
+            middle.top = child.top;
+            child = middle;
+        }
+        insert(child, key.substring(common), term);
+    }
+
+    private void delete(String key, Term term) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        String remaining = key;
+        while (!remaining.isEmpty()) {
+            Node child = node.children.get(remaining.charAt(0));
+            if (child == null || !remaining.startsWith(child.edge)) {
+                return;
+            }
+            remaining = remaining.substring(child.edge.length());
+            path.add(child);
+            node = child;
+        }
+        node.terms.remove(term);
+
+        // Prune empty leaves and merge pass-through nodes back into their only child
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (!current.terms.isEmpty()) {
+                break;
+            }
+            if (current.children.isEmpty()) {
+                parent.children.remove(current.edge.charAt(0));
+                continue;
+            }
+            if (current.children.size() == 1) {
+                Node only = current.children.values().iterator().next();
+                only.edge = current.edge + only.edge;
+                parent.children.put(only.edge.charAt(0), only);
+            }
+            break;
+        }
+    }
+
+    /**
+     * Recompute the cached top terms on the path of a key, deepest node first
+     */
+    private void refresh(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        String remaining = key;
+        while (!remaining.isEmpty()) {
+            Node child = node.children.get(remaining.charAt(0));
+            if (child == null || !remaining.startsWith(child.edge)) {
+                break;
+            }
+            remaining = remaining.substring(child.edge.length());
+            path.add(child);
+            node = child;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            computeTop(path.get(i));
+        }
+    }
+
+    private void computeTops(Node node) {
+        for (Node child : node.children.values()) {
+            computeTops(child);
+        }
+        computeTop(node);
+    }
+
+    private static void computeTop(Node node) {
+        List<Term> candidates = new ArrayList<>(node.terms);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        node.top = candidates.stream()
+                .distinct()
+                .sorted(RANK)
+                .limit(MAX_SUGGESTIONS)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * The folded name plus the suffix starting at each later word
+     */
+    private static List<String> keys(String folded) {
+        List<String> keys = new ArrayList<>();
+        keys.add(folded);
+        for (int i = folded.indexOf(' '); i >= 0; i = folded.indexOf(' ', i + 1)) {
+            keys.add(folded.substring(i + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * Best guess at the locality in a free-form address: the last comma-separated part
+     * that is not a house number, the city, the state or a long phrase
+     */
+    static String locality(String address, String city, String state) {
+        if (address == null) {
+            return null;
+        }
+        String[] parts = address.split(",");
+        for (int i = parts.length - 1; i >= 0; i--) {
+            String part = parts[i].trim();
+            String folded = fold(part);
+            if (folded.isEmpty() || part.chars().anyMatch(Character::isDigit)
+                    || folded.equals(fold(city)) || folded.equals(fold(state)) || folded.equals("india")
+                    || folded.split(" ").length > 4) {
+                continue;
+            }
+            return part;
+        }
+        return null;
+    }
+
+    // Lower-case, accents stripped, punctuation and runs of whitespace collapsed to one space
+    static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return normalized.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,342 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import com.residentia.repository.PropertyRepository;
+import com.residentia.repository.PropertyTextView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Embedded full-text index over ACTIVE listings.
+ *
+ * Name, address, city, amenities and description are tokenized into one inverted
+ * index of postings (internal doc id, weighted term frequency) and queries are
+ * ranked with BM25. Each query touches only the postings of its own terms, so
+ * latency depends on how many listings match rather than on catalog size.
+ */
+@Slf4j
+@Service
+public class ListingTextIndex implements ListingIndex {
+
+    private static final String ACTIVE = "ACTIVE";
+
+    // BM25 parameters
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // A term in the name counts three times as much as one in the description
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float LOCATION_WEIGHT = 2.0f;
+    private static final float AMENITY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have",
+            "in", "is", "it", "its", "of", "on", "or", "our", "the", "this", "to", "with");
+
+    // Best score first, ties broken by ascending property id
+    public static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::getScore).reversed()
+            .thenComparingLong(Hit::getPropertyId);
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final long propertyId;
+        private final float score;
+    }
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; replaced wholesale on rebuild
+    private Index index = new Index();
+
+    /**
+     * Streams the text columns itself, since catalog cards leave out the description
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuild(Collection<PropertyDTO> cards) {
+        Index rebuilt = new Index();
+        try (Stream<PropertyTextView> rows = propertyRepository.streamTextByStatus(ACTIVE)) {
+            rows.forEach(row -> addDocument(rebuilt, row.getId(), row.getPropertyName(), row.getAddress(),
+                    row.getCity(), row.getAmenities(), row.getDescription()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Full-text index built: {} listings, {} terms", rebuilt.size(), rebuilt.postings.size());
+    }
+
+    @Override
+    public void index(Property property, PropertyDTO card) {
+        lock.writeLock().lock();
+        try {
+            addDocument(index, property.getId(), property.getPropertyName(), property.getAddress(),
+                    property.getCity(), property.getAmenities(), property.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top hits for a free-text query in RANKING order.
+     *
+     * @param filter only property ids accepted by the filter are returned
+     * @param after  when set, only hits ranked strictly after it (seek paging)
+     * @param limit  maximum number of hits
+     */
+    public List<Hit> search(String query, LongPredicate filter, Hit after, int limit) {
+        Set<String> terms = new LinkedHashSet<>(analyze(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            Index current = index;
+            int documents = current.size();
+            if (documents == 0) {
+                return new ArrayList<>();
+            }
+            float averageLength = (float) (current.totalLength / documents);
+            float[] scores = new float[current.maxDoc];
+            int[] touched = new int[current.maxDoc];
+            int touchedCount = 0;
+
+            for (String term : terms) {
+                Postings postings = current.postings.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (documents - postings.size + 0.5) / (postings.size + 0.5));
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    float tf = postings.freqs[i];
+                    float norm = K1 * (1 - B + B * current.lengths[doc] / averageLength);
+                    if (scores[doc] == 0) {
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                Hit hit = new Hit(current.propertyIds[doc], scores[doc]);
+                if (after != null && RANKING.compare(hit, after) <= 0) {
+                    continue;
+                }
+                if (!filter.test(hit.getPropertyId())) {
+                    continue;
+                }
+                top.offer(hit);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void addDocument(Index target, Long propertyId, String name, String address, String city,
+                                    String amenities, String description) {
+        Map<String, Float> freqs = new HashMap<>();
+        float length = addField(freqs, name, NAME_WEIGHT)
+                + addField(freqs, address, LOCATION_WEIGHT)
+                + addField(freqs, city, LOCATION_WEIGHT)
+                + addField(freqs, amenities, AMENITY_WEIGHT)
+                + addField(freqs, description, DESCRIPTION_WEIGHT);
+        target.add(propertyId, freqs, length);
+    }
+
+    private static float addField(Map<String, Float> freqs, String text, float weight) {
+        List<String> tokens = analyze(text);
+        for (String token : tokens) {
+            freqs.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * Split text into normalized terms: accents stripped, lower-cased, stop words
+     * dropped and simple plurals folded ("rooms" -> "room", "facilities" -> "facility")
+     */
+    static List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && c != '\'') {
+                addToken(current, tokens);
+            }
+        }
+        addToken(current, tokens);
+        return tokens;
+    }
+
+    private static void addToken(StringBuilder current, List<String> tokens) {
+        if (current.length() == 0) {
+            return;
+        }
+        String token = current.toString();
+        current.setLength(0);
+        if (STOP_WORDS.contains(token) || (token.length() < 2 && !Character.isDigit(token.charAt(0)))) {
+            return;
+        }
+        tokens.add(stem(token));
+    }
+
+    private static String stem(String token) {
+        int length = token.length();
+        if (length > 4 && token.endsWith("ies")) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (length > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")
+                && !Character.isDigit(token.charAt(length - 2))) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    }
+
+    /**
+     * Postings of one term: parallel arrays of internal doc ids and weighted frequencies
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] freqs = new float[4];
+        private int size;
+
+        void add(int doc, float freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    freqs[i] = freqs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Index {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<Long, Integer> docsByProperty = new HashMap<>();
+        // Internal doc ids of removed listings, reused before growing
+        private final ArrayDeque<Integer> freeDocs = new ArrayDeque<>();
+        private long[] propertyIds = new long[64];
+        private float[] lengths = new float[64];
+        private String[][] terms = new String[64][];
+        private int maxDoc;
+        private double totalLength;
+
+        void add(Long propertyId, Map<String, Float> freqs, float length) {
+            remove(propertyId);
+            int doc = freeDocs.isEmpty() ? maxDoc++ : freeDocs.pop();
+            if (doc >= propertyIds.length) {
+                int capacity = propertyIds.length * 2;
+                propertyIds = Arrays.copyOf(propertyIds, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                terms = Arrays.copyOf(terms, capacity);
+            }
+            propertyIds[doc] = propertyId;
+            lengths[doc] = length;
+            terms[doc] = freqs.keySet().toArray(new String[0]);
+            freqs.forEach((term, freq) -> postings.computeIfAbsent(term, k -> new Postings()).add(doc, freq));
+            docsByProperty.put(propertyId, doc);
+            totalLength += length;
+        }
+
+        void remove(Long propertyId) {
+            Integer doc = docsByProperty.remove(propertyId);
+            if (doc == null) {
+                return;
+            }
+            for (String term : terms[doc]) {
+                Postings termPostings = postings.get(term);
+                if (termPostings != null) {
+                    termPostings.remove(doc);
+                    if (termPostings.size == 0) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= lengths[doc];
+            lengths[doc] = 0;
+            terms[doc] = null;
+            freeDocs.push(doc);
+        }
+
+        int size() {
+            return docsByProperty.size();
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.residentia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.NoSuchProviderException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends mail over one long-lived SMTP connection instead of a new session per message.
+ *
+ * Messages are queued and a single sender thread takes them in batches, paced by a
+ * token bucket so bursts stay within the provider's send limits. The connection is
+ * opened on demand, checked after it has been idle, and closed after idleClose of no
+ * mail. Transient failures (connection drops, 4xx replies) reconnect and retry with
+ * exponential backoff; 5xx replies, invalid addresses and configuration or
+ * authentication errors fail at once.
+ *
+ * Metrics: mail.dispatch.queue.depth, mail.dispatch.latency (queued to sent) and the
+ * mail.dispatch.sent, .retried and .failed counters.
+ */
+@Slf4j
+@Service
+public class MailDispatcher {
+
+    // An idle connection older than this is probed with NOOP before use
+    private static final long PROBE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final class Pending {
+        private final MimeMessage message;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final long queuedAt = System.nanoTime();
+        private int attempts;
+        private long dueAt;
+
+        Pending(MimeMessage message) {
+            this.message = message;
+        }
+    }
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final long idleCloseNanos;
+    private final long sendTimeoutMillis;
+    private final TokenBucket tokenBucket;
+
+    // Owned by the sender thread
+    private final PriorityQueue<Pending> retries = new PriorityQueue<>((a, b) -> Long.compare(a.dueAt, b.dueAt));
+    private Transport transport;
+    private long lastUsedAt;
+
+    private final Timer latency;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread sender;
+
+    public MailDispatcher(JavaMailSenderImpl mailSender, MeterRegistry meterRegistry,
+                          @Value("${mail.dispatch.queue-capacity:1000}") int queueCapacity,
+                          @Value("${mail.dispatch.batch-size:50}") int batchSize,
+                          @Value("${mail.dispatch.rate-per-second:1.0}") double ratePerSecond,
+                          @Value("${mail.dispatch.burst:20}") int burst,
+                          @Value("${mail.dispatch.max-attempts:4}") int maxAttempts,
+                          @Value("${mail.dispatch.retry-backoff-ms:2000}") long retryBackoffMillis,
+                          @Value("${mail.dispatch.idle-close-ms:30000}") long idleCloseMillis,
+                          @Value("${mail.dispatch.send-timeout-ms:120000}") long sendTimeoutMillis) {
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.idleCloseNanos = TimeUnit.MILLISECONDS.toNanos(idleCloseMillis);
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.tokenBucket = new TokenBucket(ratePerSecond, burst);
+
+        Gauge.builder("mail.dispatch.queue.depth", this, dispatcher -> dispatcher.queue.size())
+                .description("Messages waiting for the SMTP sender")
+                .register(meterRegistry);
+        this.latency = Timer.builder("mail.dispatch.latency")
+                .description("Time from queueing a message to the SMTP server accepting it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.sent = meterRegistry.counter("mail.dispatch.sent");
+        this.retried = meterRegistry.counter("mail.dispatch.retried");
+        this.failed = meterRegistry.counter("mail.dispatch.failed");
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        sender = new Thread(this::run, "mail-dispatcher");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        sender.interrupt();
+        sender.join(TimeUnit.SECONDS.toMillis(10));
+        MailSendException stopped = new MailSendException("Mail dispatcher stopped");
+        queue.forEach(pending -> pending.result.completeExceptionally(stopped));
+    }
+
+    /**
+     * Queue a message; the future completes once the SMTP server has accepted it
+     */
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        Pending pending = new Pending(message);
+        if (!queue.offer(pending)) {
+            failed.increment();
+            pending.result.completeExceptionally(new MailSendException("Mail queue is full"));
+        }
+        return pending.result;
+    }
+
+    /**
+     * Queue a message and wait until it is sent or has failed for good. A message
+     * still queued when the wait ends is dropped, so a caller that retries after the
+     * timeout does not send it twice.
+     */
+    public void send(MimeMessage message) {
+        CompletableFuture<Void> result = submit(message);
+        try {
+            result.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for mail to be sent", e);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new MailSendException("Mail was not sent within " + sendTimeoutMillis + " ms", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MailSendException mailSendException) {
+                throw mailSendException;
+            }
+            throw new MailSendException("Mail could not be sent", e.getCause());
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.clear();
+                long now = System.nanoTime();
+                while (!retries.isEmpty() && retries.peek().dueAt <= now && batch.size() < batchSize) {
+                    batch.add(retries.poll());
+                }
+                if (batch.isEmpty()) {
+                    long waitNanos = retries.isEmpty() ? idleCloseNanos : Math.min(idleCloseNanos, retries.peek().dueAt - now);
+                    Pending first = queue.poll(Math.max(waitNanos, 1), TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        if (transport != null && System.nanoTime() - lastUsedAt >= idleCloseNanos) {
+                            closeTransport();
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                for (Pending pending : batch) {
+                    tokenBucket.acquire();
+                    deliver(pending);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Mail dispatcher error: {}", e.getMessage(), e);
+            }
+        }
+        MailSendException stopped = new MailSendException("Mail dispatcher stopped");
+        batch.forEach(pending -> pending.result.completeExceptionally(stopped));
+        retries.forEach(pending -> pending.result.completeExceptionally(stopped));
+        closeTransport();
+    }
+
+    private void deliver(Pending pending) {
+        // Cancelled by a sender that stopped waiting
+        if (pending.result.isDone()) {
+            return;
+        }
+        pending.attempts++;
+        try {
+            Transport connected = connectedTransport();
+            if (pending.message.getSentDate() == null) {
+                pending.message.setSentDate(new Date());
+            }
+            pending.message.saveChanges();
+            connected.sendMessage(pending.message, pending.message.getAllRecipients());
+            lastUsedAt = System.nanoTime();
+            latency.record(lastUsedAt - pending.queuedAt, TimeUnit.NANOSECONDS);
+            sent.increment();
+            pending.result.complete(null);
+        } catch (MessagingException e) {
+            boolean permanent = isPermanent(e);
+            if (permanent || pending.attempts >= maxAttempts) {
+                failed.increment();
+                log.error("Mail to {} failed after {} attempts: {}", recipients(pending), pending.attempts, e.getMessage());
+                pending.result.completeExceptionally(new MailSendException("Mail could not be sent: " + e.getMessage(), e));
+                if (!permanent) {
+                    closeTransport();
+                }
+                return;
+            }
+            // The connection may be broken; reconnect for the retry
+            closeTransport();
+            long backoffMillis = retryBackoffMillis << Math.min(pending.attempts - 1, 10);
+            pending.dueAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+            retries.add(pending);
+            retried.increment();
+            log.warn("Mail to {} failed, retrying in {} ms: {}", recipients(pending), backoffMillis, e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a failed send is not worth retrying. SMTP replies decide by their code:
+     * 4xx (throttling, greylisting, busy mailbox) is retried, 5xx is not. A send
+     * failure without a reply code comes from addresses rejected before sending.
+     */
+    static boolean isPermanent(MessagingException e) {
+        if (e instanceof AuthenticationFailedException || e instanceof NoSuchProviderException) {
+            return true;
+        }
+        boolean rejected = false;
+        // Per-recipient replies are chained as next exceptions
+        for (Exception cause = e; cause != null;
+             cause = cause instanceof MessagingException chained ? chained.getNextException() : null) {
+            int code = replyCode(cause);
+            if (code >= 400 && code < 500) {
+                return false;
+            }
+            rejected |= code >= 500;
+        }
+        return rejected || e instanceof SendFailedException;
+    }
+
+    private static int replyCode(Exception e) {
+        if (e instanceof SMTPSendFailedException failed) {
+            return failed.getReturnCode();
+        }
+        if (e instanceof SMTPSenderFailedException failed) {
+            return failed.getReturnCode();
+        }
+        if (e instanceof SMTPAddressFailedException failed) {
+            return failed.getReturnCode();
+        }
+        return -1;
+    }
+
+    private Transport connectedTransport() throws MessagingException {
+        if (transport != null && System.nanoTime() - lastUsedAt > PROBE_AFTER_IDLE_NANOS && !transport.isConnected()) {
+            closeTransport();
+        }
+        if (transport == null) {
+            String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+            Transport opened = mailSender.getSession().getTransport(protocol);
+            String username = mailSender.getUsername();
+            String password = mailSender.getPassword();
+            opened.connect(mailSender.getHost(), mailSender.getPort(),
+                    username != null && !username.isEmpty() ? username : null,
+                    password != null && !password.isEmpty() ? password : null);
+            transport = opened;
+            log.debug("SMTP connection opened to {}:{}", mailSender.getHost(), mailSender.getPort());
+        }
+        lastUsedAt = System.nanoTime();
+        return transport;
+    }
+
+    private void closeTransport() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed: {}", e.getMessage());
+        }
+        transport = null;
+        log.debug("SMTP connection closed");
+    }
+
+    private static String recipients(Pending pending) {
+        try {
+            return Arrays.toString(pending.message.getAllRecipients());
+        } catch (MessagingException e) {
+            return "?";
+        }
+    }
+}
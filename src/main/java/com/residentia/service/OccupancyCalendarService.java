@@ -0,0 +1,185 @@
+package com.residentia.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.residentia.dto.OccupancyCalendarResponse;
+import com.residentia.event.BookingChangedEvent;
+import com.residentia.exception.ResourceNotFoundException;
+import com.residentia.exception.UnauthorizedException;
+import com.residentia.repository.BookingIntervalView;
+import com.residentia.repository.BookingRepository;
+import com.residentia.repository.PropertyCapacityView;
+import com.residentia.repository.PropertyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Day-by-day bed occupancy of a listing, for the owner calendar.
+ *
+ * Occupancy is cached per listing in month blocks of one int per day. A request
+ * fills the months it is missing with one interval query and a sweep over a
+ * difference array; a booking change on this node drops only the months its stay
+ * covers, before and after the change. A listing's months expire after
+ * calendar.cache.ttl-seconds, so changes made on other nodes show up within that time.
+ */
+@Slf4j
+@Service
+public class OccupancyCalendarService {
+
+    public static final int MAX_DAYS = 400;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private static final class PropertyMonths {
+        private final Map<YearMonth, int[]> months = new ConcurrentHashMap<>();
+
+        // Bumped on invalidation, so a sweep that read older bookings is not kept
+        private final AtomicLong generation = new AtomicLong();
+    }
+
+    private final Cache<Long, PropertyMonths> cache;
+
+    public OccupancyCalendarService(@Value("${calendar.cache.max-properties:5000}") long maxProperties,
+                                    @Value("${calendar.cache.ttl-seconds:300}") long ttlSeconds) {
+        // Bookings written on other nodes send no event here; the TTL bounds how long
+        // a listing's months can miss them
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxProperties)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Occupied and free beds for every day of [from, to] at one of the owner's listings
+     */
+    public OccupancyCalendarResponse calendar(Long ownerId, Long propertyId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new IllegalArgumentException("Calendar range is limited to " + MAX_DAYS + " days");
+        }
+        PropertyCapacityView property = propertyRepository.findCapacityById(propertyId);
+        if (property == null) {
+            throw new ResourceNotFoundException("Property not found with id: " + propertyId);
+        }
+        if (!ownerId.equals(property.getOwnerId())) {
+            throw new UnauthorizedException("Property does not belong to this owner");
+        }
+        int capacity = BookingAvailabilityIndex.beds(property.getMaxCapacity());
+
+        PropertyMonths cached = cache.get(propertyId, id -> new PropertyMonths());
+        Map<YearMonth, int[]> blocks = new HashMap<>();
+        YearMonth firstMissing = null;
+        YearMonth lastMissing = null;
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            int[] block = cached.months.get(month);
+            if (block != null) {
+                blocks.put(month, block);
+            } else {
+                if (firstMissing == null) {
+                    firstMissing = month;
+                }
+                lastMissing = month;
+            }
+        }
+        if (firstMissing != null) {
+            blocks.putAll(sweep(propertyId, cached, firstMissing, lastMissing));
+        }
+
+        List<OccupancyCalendarResponse.Day> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            int occupied = blocks.get(YearMonth.from(day))[day.getDayOfMonth() - 1];
+            days.add(new OccupancyCalendarResponse.Day(day, occupied, Math.max(capacity - occupied, 0)));
+        }
+        return new OccupancyCalendarResponse(propertyId, capacity, from, to, days);
+    }
+
+    /**
+     * Drop the cached months a committed booking change may have altered
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        PropertyMonths cached = event.getPropertyId() != null ? cache.getIfPresent(event.getPropertyId()) : null;
+        if (cached == null) {
+            return;
+        }
+        cached.generation.incrementAndGet();
+        cached.months.keySet().removeIf(month -> covers(event.getCheckIn(), event.getCheckOut(), month)
+                || covers(event.getPreviousCheckIn(), event.getPreviousCheckOut(), month));
+    }
+
+    /**
+     * Occupancy of every month in [firstMonth, lastMonth], cached unless bookings
+     * changed meanwhile
+     */
+    private Map<YearMonth, int[]> sweep(Long propertyId, PropertyMonths cached,
+                                        YearMonth firstMonth, YearMonth lastMonth) {
+        long generation = cached.generation.get();
+        LocalDate start = firstMonth.atDay(1);
+        LocalDate end = lastMonth.atEndOfMonth().plusDays(1);
+        int length = (int) ChronoUnit.DAYS.between(start, end);
+
+        // Difference array: +1 on the check-in day, -1 on the check-out day
+        int[] occupied = new int[length + 1];
+        List<BookingIntervalView> stays = bookingRepository.findIntervalsBetween(propertyId,
+                BookingAvailabilityIndex.ACTIVE_STATUSES, start.atStartOfDay(), end.atStartOfDay());
+        for (BookingIntervalView stay : stays) {
+            long checkIn = stay.getCheckInDate().toLocalDate().toEpochDay();
+            // Open-ended stays run past the range; same-day stays hold the bed one night
+            long checkOut = stay.getCheckOutDate() != null
+                    ? Math.max(stay.getCheckOutDate().toLocalDate().toEpochDay(), checkIn + 1)
+                    : Long.MAX_VALUE;
+            int first = (int) Math.max(checkIn - start.toEpochDay(), 0);
+            int last = (int) Math.min(checkOut - start.toEpochDay(), length);
+            if (first < last) {
+                occupied[first]++;
+                occupied[last]--;
+            }
+        }
+        for (int i = 1; i < length; i++) {
+            occupied[i] += occupied[i - 1];
+        }
+
+        Map<YearMonth, int[]> blocks = new HashMap<>();
+        int offset = 0;
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            blocks.put(month, Arrays.copyOfRange(occupied, offset, offset + month.lengthOfMonth()));
+            offset += month.lengthOfMonth();
+        }
+        cached.months.putAll(blocks);
+        if (cached.generation.get() != generation) {
+            blocks.forEach(cached.months::remove);
+        }
+        log.debug("Swept {} bookings into {} calendar months for property {}", stays.size(), blocks.size(), propertyId);
+        return blocks;
+    }
+
+    private static boolean covers(LocalDateTime checkIn, LocalDateTime checkOut, YearMonth month) {
+        if (checkIn == null) {
+            return false;
+        }
+        return !month.isBefore(YearMonth.from(checkIn))
+                && (checkOut == null || !month.isAfter(YearMonth.from(checkOut)));
+    }
+}
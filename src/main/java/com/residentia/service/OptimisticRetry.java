@@ -0,0 +1,41 @@
+package com.residentia.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry for transactions that lose an optimistic-lock race.
+ *
+ * Call it outside the transaction, so every attempt reloads the entity it changes.
+ */
+@Slf4j
+public final class OptimisticRetry {
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    private OptimisticRetry() {
+    }
+
+    public static <T> T run(String operation, Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (i == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("{} hit a concurrent update (attempt {} of {}), retrying", operation, i, MAX_ATTEMPTS);
+                try {
+                    // Short jittered pause so the writers do not collide again
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(5, 25L * i));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.residentia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Delivers one type of outbox message. Delivery is at least once, so handlers should
+ * tolerate seeing a message again; an exception schedules a retry.
+ */
+public interface OutboxHandler {
+
+    String getType();
+
+    void handle(JsonNode payload) throws Exception;
+}
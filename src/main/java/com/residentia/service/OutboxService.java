@@ -0,0 +1,203 @@
+package com.residentia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.residentia.entity.OutboxMessage;
+import com.residentia.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transactional outbox for side effects of a committed change.
+ *
+ * enqueue writes the message in the caller's transaction, so it exists exactly when
+ * the change does. Once that transaction commits the message is handed to a small
+ * dispatcher pool; a poller picks up whatever the pool had no room for, messages due
+ * for a retry, and claims left by a node that stopped. Failed deliveries back off
+ * exponentially and are given up after maxAttempts.
+ */
+@Slf4j
+@Service
+public class OutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    // A claim older than this belongs to a worker that stopped
+    private static final long CLAIM_TIMEOUT_SECONDS = 600;
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private List<OutboxHandler> handlerBeans;
+
+    @Value("${outbox.dispatcher.threads:4}")
+    private int threads;
+
+    @Value("${outbox.dispatcher.queue:500}")
+    private int queueSize;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Value("${outbox.poll-batch-size:100}")
+    private int pollBatchSize;
+
+    @Value("${outbox.retention-days:7}")
+    private int retentionDays;
+
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+
+    private ThreadPoolExecutor dispatcher;
+
+    @PostConstruct
+    void start() {
+        for (OutboxHandler handler : handlerBeans) {
+            handlers.put(handler.getType(), handler);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Outbox dispatcher started with {} threads for {}", threads, handlers.keySet());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        dispatcher.shutdown();
+        // Unfinished messages stay claimed and are picked up again after the claim timeout
+        dispatcher.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Write a message in the current transaction, to be delivered once it commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String type, Long aggregateId, Map<String, ?> payload) {
+        OutboxMessage message = new OutboxMessage();
+        message.setType(type);
+        message.setAggregateId(aggregateId);
+        try {
+            message.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+        message.setStatus(OutboxMessage.PENDING);
+        message.setAttempts(0);
+        Long id = outboxMessageRepository.save(message).getId();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    dispatcher.execute(() -> deliver(id));
+                } catch (RejectedExecutionException e) {
+                    log.debug("Outbox dispatcher full, message {} left for the poller", id);
+                }
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${outbox.poll-interval-ms:5000}",
+            fixedDelayString = "${outbox.poll-interval-ms:5000}")
+    public void poll() {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int room = Math.min(pollBatchSize, dispatcher.getQueue().remainingCapacity());
+        if (room == 0 || outboxMessageRepository.claimDue(token, now,
+                now.minusSeconds(CLAIM_TIMEOUT_SECONDS), room) == 0) {
+            return;
+        }
+        for (OutboxMessage message : outboxMessageRepository.findByClaimTokenOrderById(token)) {
+            try {
+                dispatcher.execute(() -> run(message));
+            } catch (RejectedExecutionException e) {
+                outboxMessageRepository.release(message.getId());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${outbox.prune-cron:0 0 4 * * *}")
+    public void prune() {
+        int deleted = outboxMessageRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Pruned {} delivered outbox messages older than {} days", deleted, retentionDays);
+        }
+    }
+
+    private void deliver(Long id) {
+        // The poller may have taken it first
+        if (outboxMessageRepository.claimById(id, UUID.randomUUID().toString(), LocalDateTime.now()) == 1) {
+            outboxMessageRepository.findById(id).ifPresent(this::run);
+        }
+    }
+
+    private void run(OutboxMessage message) {
+        OutboxHandler handler = handlers.get(message.getType());
+        if (handler == null) {
+            log.error("No outbox handler for message {} of type {}", message.getId(), message.getType());
+            outboxMessageRepository.markAttemptFailed(message.getId(), OutboxMessage.FAILED,
+                    message.getNextAttemptAt(), "No handler for type " + message.getType());
+            return;
+        }
+        try {
+            handler.handle(objectMapper.readTree(message.getPayload()));
+            outboxMessageRepository.markSent(message.getId(), LocalDateTime.now());
+        } catch (Exception e) {
+            int attempts = message.getAttempts() + 1;
+            boolean giveUp = attempts >= maxAttempts;
+            long backoffMs = Math.min(retryBackoffMs << Math.min(attempts - 1, 20), MAX_BACKOFF.toMillis());
+            if (giveUp) {
+                log.error("Outbox message {} ({}) failed after {} attempts: {}",
+                        message.getId(), message.getType(), attempts, e.getMessage());
+            } else {
+                log.warn("Outbox message {} ({}) failed, retrying in {} ms: {}",
+                        message.getId(), message.getType(), backoffMs, e.getMessage());
+            }
+            outboxMessageRepository.markAttemptFailed(message.getId(),
+                    giveUp ? OutboxMessage.FAILED : OutboxMessage.PENDING,
+                    LocalDateTime.now().plus(Duration.ofMillis(backoffMs)), truncate(e.getMessage()));
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -4,16 +4,22 @@ import com.residentia.dto.OwnerDTO;
 import com.residentia.dto.OwnerLoginDTO;
 import com.residentia.dto.OwnerRegistrationDTO;
 import com.residentia.entity.Owner;
+import com.residentia.entity.Property;
+import com.residentia.event.PropertyChangedEvent;
 import com.residentia.exception.DuplicateResourceException;
 import com.residentia.exception.ResourceNotFoundException;
 import com.residentia.exception.UnauthorizedException;
 import com.residentia.repository.OwnerRepository;
+import com.residentia.repository.PropertyRepository;
 import com.residentia.security.JwtTokenProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -29,6 +35,12 @@ public class OwnerService {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Owner registerOwner(OwnerRegistrationDTO registrationDTO) {
         log.info("Registering owner with email: {}", registrationDTO.getEmail());
 
@@ -109,13 +121,17 @@ public class OwnerService {
         return convertToDTO(updatedOwner);
     }
 
+    @Transactional
     public void deleteOwner(Long ownerId) {
         log.info("Deleting owner with id: {}", ownerId);
         
         Owner owner = ownerRepository.findById(ownerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Owner not found with id: " + ownerId));
         
+        // Listings go with the owner (ON DELETE CASCADE), so tell the catalog about them
+        List<Property> properties = propertyRepository.findByOwnerId(ownerId);
         ownerRepository.delete(owner);
+        properties.forEach(property -> eventPublisher.publishEvent(PropertyChangedEvent.deleted(property)));
     }
 
     private OwnerDTO convertToDTO(Owner owner) {
@@ -0,0 +1,27 @@
+package com.residentia.service;
+
+/**
+ * The calls the application makes to its payment provider.
+ *
+ * Failures are reported as PaymentGatewayException when the gateway refused the
+ * request, and PaymentGatewayUnavailableException when it could not answer in time.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Create an order for the checkout to pay
+     *
+     * @return the gateway's order id
+     */
+    String createOrder(long amountPaise, String currency, String receipt);
+
+    /**
+     * Whether signature is the gateway's signature of a payment made for orderId
+     */
+    boolean verifyPaymentSignature(String orderId, String paymentId, String signature);
+
+    /**
+     * Public key the checkout opens the gateway with
+     */
+    String getKeyId();
+}
@@ -0,0 +1,49 @@
+package com.residentia.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 signatures as Razorpay computes them: lowercase hex of the payload
+ * keyed with the account secret
+ */
+public final class PaymentSignatures {
+
+    private PaymentSignatures() {
+    }
+
+    public static String sign(String secret, String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Constant-time check of signature against the payload's expected signature
+     */
+    public static boolean matches(String secret, String payload, String signature) {
+        if (payload == null || signature == null) {
+            return false;
+        }
+        byte[] expected = sign(secret, payload).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Payload Razorpay signs for a checkout payment
+     */
+    static String paymentPayload(String orderId, String paymentId) {
+        if (orderId == null || paymentId == null) {
+            return null;
+        }
+        return orderId + "|" + paymentId;
+    }
+}
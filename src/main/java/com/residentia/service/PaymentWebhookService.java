@@ -0,0 +1,310 @@
+package com.residentia.service;
+
+import com.residentia.entity.Booking;
+import com.residentia.entity.PaymentWebhookEvent;
+import com.residentia.repository.BookingRepository;
+import com.residentia.repository.PaymentWebhookEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Payment gateway webhooks, so a payment is recorded even when the browser never
+ * calls verify-payment.
+ *
+ * The endpoint only checks the signature and appends the event to the
+ * payment_webhook_events inbox. A scheduled worker claims pending events in batches,
+ * keeps one event per payment, and applies them with one transaction per listing for
+ * captures and one for failures. When such a transaction fails its orders are tried
+ * one by one; events that still fail go back to the inbox with an exponential
+ * backoff and are retried up to maxAttempts times.
+ */
+@Slf4j
+@Service
+public class PaymentWebhookService {
+
+    public enum Receipt { ACCEPTED, DUPLICATE, INVALID_SIGNATURE, NOT_CONFIGURED }
+
+    static final String PAYMENT_CAPTURED = "payment.captured";
+    static final String ORDER_PAID = "order.paid";
+    static final String PAYMENT_FAILED = "payment.failed";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    // A claim older than this belongs to a worker that stopped
+    private static final long CLAIM_TIMEOUT_SECONDS = 300;
+
+    @Autowired
+    private PaymentWebhookEventRepository paymentWebhookEventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Value("${payment.webhook.secret:}")
+    private String webhookSecret;
+
+    @Value("${payment.webhook.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.webhook.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${payment.webhook.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${payment.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.webhook.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    /**
+     * Verify a webhook and append it to the inbox
+     *
+     * @param eventId the gateway's event id header, if sent
+     */
+    public Receipt receive(String payload, String signature, String eventId) {
+        if (!StringUtils.hasText(webhookSecret)) {
+            log.error("Payment webhook received but payment.webhook.secret is not configured");
+            return Receipt.NOT_CONFIGURED;
+        }
+        if (!PaymentSignatures.matches(webhookSecret, payload, signature)) {
+            return Receipt.INVALID_SIGNATURE;
+        }
+
+        String eventType = null;
+        String orderId = null;
+        String paymentId = null;
+        try {
+            JSONObject event = new JSONObject(payload);
+            eventType = event.optString("event", null);
+            JSONObject payment = entity(event, "payment");
+            if (payment != null) {
+                paymentId = payment.optString("id", null);
+                orderId = payment.optString("order_id", null);
+            }
+            JSONObject order = entity(event, "order");
+            if (orderId == null && order != null) {
+                orderId = order.optString("id", null);
+            }
+        } catch (JSONException e) {
+            log.warn("Signed payment webhook is not valid JSON: {}", e.getMessage());
+        }
+
+        int appended = paymentWebhookEventRepository.append(
+                StringUtils.hasText(eventId) ? eventId : sha256(payload),
+                eventType != null ? eventType : "unknown",
+                orderId, paymentId, payload, LocalDateTime.now());
+        log.debug("Payment webhook {} for order {} {}", eventType, orderId, appended == 1 ? "queued" : "already received");
+        return appended == 1 ? Receipt.ACCEPTED : Receipt.DUPLICATE;
+    }
+
+    /**
+     * Drain the inbox until it is empty or maxBatchesPerRun batches were applied
+     */
+    @Scheduled(initialDelayString = "${payment.webhook.drain-interval-ms:2000}",
+            fixedDelayString = "${payment.webhook.drain-interval-ms:2000}")
+    public void drain() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            String token = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now();
+            int claimed = paymentWebhookEventRepository.claim(token, now,
+                    now.minusSeconds(CLAIM_TIMEOUT_SECONDS), batchSize);
+            if (claimed == 0) {
+                return;
+            }
+            apply(paymentWebhookEventRepository.findByClaimTokenOrderById(token));
+            if (claimed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${payment.webhook.prune-cron:0 45 3 * * *}")
+    public void prune() {
+        int deleted = paymentWebhookEventRepository.deleteProcessedBefore(
+                LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Pruned {} processed payment webhooks older than {} days", deleted, retentionDays);
+        }
+    }
+
+    private void apply(List<PaymentWebhookEvent> events) {
+        // One capture per order and one event per payment id; a capture outranks a
+        // failed attempt on the same order
+        Map<String, String> captures = new LinkedHashMap<>();
+        Set<String> failures = new LinkedHashSet<>();
+        Map<String, List<Long>> eventsByOrder = new HashMap<>();
+        Set<String> seenPayments = new LinkedHashSet<>();
+        List<Long> ignored = new ArrayList<>();
+        List<Long> duplicates = new ArrayList<>();
+
+        for (PaymentWebhookEvent event : events) {
+            String type = event.getEventType();
+            boolean capture = PAYMENT_CAPTURED.equals(type) || ORDER_PAID.equals(type);
+            if ((!capture && !PAYMENT_FAILED.equals(type)) || event.getRazorpayOrderId() == null) {
+                ignored.add(event.getId());
+                continue;
+            }
+            // payment.captured and order.paid both report the same captured payment
+            String paymentKey = (capture ? "captured|" : "failed|") + (event.getRazorpayPaymentId() != null
+                    ? event.getRazorpayPaymentId() : event.getRazorpayOrderId());
+            if (!seenPayments.add(paymentKey)) {
+                duplicates.add(event.getId());
+                continue;
+            }
+            eventsByOrder.computeIfAbsent(event.getRazorpayOrderId(), order -> new ArrayList<>()).add(event.getId());
+            if (capture) {
+                if (event.getRazorpayPaymentId() != null) {
+                    captures.putIfAbsent(event.getRazorpayOrderId(), event.getRazorpayPaymentId());
+                } else {
+                    // order.paid without the payment; record it under the order
+                    captures.putIfAbsent(event.getRazorpayOrderId(), null);
+                }
+            } else {
+                failures.add(event.getRazorpayOrderId());
+            }
+        }
+        failures.removeAll(captures.keySet());
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!ignored.isEmpty()) {
+            paymentWebhookEventRepository.finish(ignored, PaymentWebhookEvent.IGNORED, "Not a payment outcome", now);
+        }
+        if (!duplicates.isEmpty()) {
+            paymentWebhookEventRepository.finish(duplicates, PaymentWebhookEvent.IGNORED, "Duplicate in batch", now);
+        }
+
+        // Captures take beds, so they are grouped per listing under its admission lock
+        Map<Long, Map<String, String>> capturesByProperty = new HashMap<>();
+        List<Long> unknown = new ArrayList<>();
+        captures.forEach((orderId, paymentId) -> {
+            Booking booking = bookingRepository.findByRazorpayOrderId(orderId).orElse(null);
+            if (booking == null) {
+                unknown.addAll(eventsByOrder.get(orderId));
+            } else {
+                capturesByProperty.computeIfAbsent(booking.getProperty().getId(), id -> new LinkedHashMap<>())
+                        .put(orderId, paymentId != null ? paymentId : booking.getRazorpayPaymentId());
+            }
+        });
+        if (!unknown.isEmpty()) {
+            paymentWebhookEventRepository.finish(unknown, PaymentWebhookEvent.IGNORED, "No booking for order", now);
+        }
+        Map<Long, Integer> attempts = events.stream()
+                .collect(Collectors.toMap(PaymentWebhookEvent::getId, PaymentWebhookEvent::getAttempts));
+        capturesByProperty.forEach((propertyId, payments) -> confirm(propertyId, payments, eventsByOrder, attempts));
+        if (!failures.isEmpty()) {
+            markFailed(failures, eventsByOrder, attempts);
+        }
+        log.debug("Applied {} payment webhooks: {} captures, {} failures", events.size(), captures.size(), failures.size());
+    }
+
+    /**
+     * Captures of one listing in one transaction. When it fails, each order is tried
+     * on its own, so one bad booking does not hold back the others.
+     */
+    private void confirm(Long propertyId, Map<String, String> payments,
+                         Map<String, List<Long>> eventsByOrder, Map<Long, Integer> attempts) {
+        List<Long> ids = eventIds(eventsByOrder, payments.keySet());
+        try {
+            List<Booking> confirmed = bookingService.confirmPayments(propertyId, payments);
+            paymentWebhookEventRepository.finish(ids, PaymentWebhookEvent.PROCESSED, null, LocalDateTime.now());
+            confirmed.forEach(booking -> log.info("Payment webhook confirmed booking {}", booking.getId()));
+        } catch (RuntimeException e) {
+            if (payments.size() > 1) {
+                log.info("Payment webhooks for property {} failed together, applying them one by one: {}",
+                        propertyId, e.getMessage());
+                payments.forEach((orderId, paymentId) -> confirm(propertyId,
+                        Collections.singletonMap(orderId, paymentId), eventsByOrder, attempts));
+                return;
+            }
+            log.warn("Payment webhooks for order {} will be retried: {}", payments.keySet(), e.getMessage());
+            retryLater(ids, attempts, e);
+        }
+    }
+
+    private void markFailed(Set<String> orderIds, Map<String, List<Long>> eventsByOrder, Map<Long, Integer> attempts) {
+        List<Long> ids = eventIds(eventsByOrder, orderIds);
+        try {
+            int failed = bookingService.markPaymentsFailed(orderIds);
+            paymentWebhookEventRepository.finish(ids, PaymentWebhookEvent.PROCESSED, null, LocalDateTime.now());
+            log.info("Payment webhooks marked {} bookings FAILED", failed);
+        } catch (RuntimeException e) {
+            if (orderIds.size() > 1) {
+                log.info("Failed-payment webhooks failed together, applying them one by one: {}", e.getMessage());
+                orderIds.forEach(orderId -> markFailed(Set.of(orderId), eventsByOrder, attempts));
+                return;
+            }
+            log.warn("Failed-payment webhooks for order {} will be retried: {}", orderIds, e.getMessage());
+            retryLater(ids, attempts, e);
+        }
+    }
+
+    // Back to the inbox after an exponential backoff on each event's attempt count
+    private void retryLater(List<Long> ids, Map<Long, Integer> attempts, RuntimeException e) {
+        LocalDateTime now = LocalDateTime.now();
+        ids.stream()
+                .collect(Collectors.groupingBy(attempts::get))
+                .forEach((attempt, group) -> {
+                    long backoffMs = Math.min(retryBackoffMs << Math.min(attempt - 1, 20), MAX_BACKOFF.toMillis());
+                    paymentWebhookEventRepository.retryLater(group, truncate(e.getMessage()), maxAttempts,
+                            now.plus(Duration.ofMillis(backoffMs)));
+                });
+    }
+
+    private static List<Long> eventIds(Map<String, List<Long>> eventsByOrder, Set<String> orderIds) {
+        List<Long> ids = new ArrayList<>();
+        for (String orderId : orderIds) {
+            ids.addAll(eventsByOrder.get(orderId));
+        }
+        return ids;
+    }
+
+    private static JSONObject entity(JSONObject event, String name) {
+        JSONObject payload = event.optJSONObject("payload");
+        JSONObject wrapper = payload != null ? payload.optJSONObject(name) : null;
+        return wrapper != null ? wrapper.optJSONObject("entity") : null;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private static String sha256(String payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
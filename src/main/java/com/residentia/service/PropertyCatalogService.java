@@ -0,0 +1,506 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import com.residentia.event.PropertyChangedEvent;
+import com.residentia.repository.PropertyCardView;
+import com.residentia.repository.PropertyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory catalog of ACTIVE listings.
+ *
+ * Holds one card PropertyDTO (no description, first image only) per ACTIVE property
+ * plus hashed indexes on case-folded city, sharing type and food flag and a sorted
+ * rent index, so the public client searches are answered without touching MySQL.
+ * The catalog is loaded once at startup and refreshed incrementally from
+ * PropertyChangedEvent; a periodic resync picks up writes made by other nodes or
+ * directly in the database.
+ *
+ * Every ListingIndex bean is rebuilt with the catalog and receives the same
+ * incremental updates. Indexes are called outside the catalog lock, so they may
+ * read back from the catalog without lock-ordering issues.
+ *
+ * Updates to the catalog and the indexes are serialized by updateLock. A reload
+ * reads its snapshot without holding it; changes arriving meanwhile are queued and
+ * replayed, in order, once the snapshot is in, so the snapshot cannot overwrite them.
+ */
+@Slf4j
+@Service
+public class PropertyCatalogService {
+
+    private static final String ACTIVE = "ACTIVE";
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired(required = false)
+    private List<ListingIndex> listingIndexes = new ArrayList<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Serializes writers: reloads and incremental changes, including their index calls
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    // One reload at a time; a second caller waits and then reloads again
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Guarded by updateLock; non-null while a reload reads its snapshot
+    private List<Runnable> deferred;
+
+    // All maps below are guarded by lock
+    private final Map<Long, PropertyDTO> listings = new HashMap<>();
+    private final Map<String, Set<Long>> cityIndex = new HashMap<>();
+    private final Map<String, Set<Long>> sharingTypeIndex = new HashMap<>();
+    private final Map<Boolean, Set<Long>> foodIndex = new HashMap<>();
+    private final TreeMap<Integer, Set<Long>> rentIndex = new TreeMap<>();
+
+    private volatile boolean loaded = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${catalog.resync-interval-ms:300000}",
+               fixedDelayString = "${catalog.resync-interval-ms:300000}")
+    public void scheduledResync() {
+        reload();
+    }
+
+    /**
+     * Rebuild the whole catalog from the database
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            updateLock.lock();
+            try {
+                deferred = new ArrayList<>();
+            } finally {
+                updateLock.unlock();
+            }
+
+            List<PropertyDTO> cards = null;
+            try {
+                log.info("Loading property catalog");
+                cards = propertyRepository.findCardsByStatus(ACTIVE).stream()
+                        .map(this::toCard)
+                        .collect(Collectors.toList());
+            } finally {
+                updateLock.lock();
+                try {
+                    if (cards != null) {
+                        replace(cards);
+                    }
+                    replayDeferred();
+                } finally {
+                    deferred = null;
+                    updateLock.unlock();
+                }
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Changes that committed while the snapshot was read, in the order they arrived
+    private void replayDeferred() {
+        for (Runnable change : deferred) {
+            try {
+                change.run();
+            } catch (RuntimeException e) {
+                log.error("Catalog change queued during reload failed: {}", e.getMessage(), e);
+            }
+        }
+        if (!deferred.isEmpty()) {
+            log.debug("Replayed {} catalog changes queued during reload", deferred.size());
+        }
+    }
+
+    // Called holding updateLock
+    private void replace(List<PropertyDTO> cards) {
+        lock.writeLock().lock();
+        try {
+            clearIndexes();
+            for (PropertyDTO card : cards) {
+                add(card);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Property catalog loaded with {} active listings", cards.size());
+
+        for (ListingIndex listingIndex : listingIndexes) {
+            listingIndex.rebuild(cards);
+        }
+    }
+
+    /**
+     * Apply a single property write to the catalog.
+     * Runs after commit when the write was transactional, immediately otherwise.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getChangeType() == PropertyChangedEvent.ChangeType.DELETED || event.getProperty() == null) {
+            remove(event.getPropertyId());
+        } else {
+            upsert(event.getProperty());
+        }
+    }
+
+    /**
+     * Insert or replace a listing; non-ACTIVE properties are dropped from the catalog
+     */
+    public void upsert(Property property) {
+        if (property == null || property.getId() == null) {
+            return;
+        }
+        PropertyDTO dto = ACTIVE.equalsIgnoreCase(property.getStatus()) ? toCard(property) : null;
+        update(() -> apply(property, dto));
+    }
+
+    public void remove(Long propertyId) {
+        if (propertyId == null) {
+            return;
+        }
+        update(() -> apply(propertyId));
+    }
+
+    // Run a change now, or after the reload in progress
+    private void update(Runnable change) {
+        updateLock.lock();
+        try {
+            if (deferred != null) {
+                deferred.add(change);
+            } else {
+                change.run();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void apply(Property property, PropertyDTO dto) {
+        lock.writeLock().lock();
+        try {
+            PropertyDTO previous = listings.remove(property.getId());
+            if (previous != null) {
+                unindex(previous);
+            }
+            if (dto != null) {
+                add(dto);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (ListingIndex listingIndex : listingIndexes) {
+            if (dto != null) {
+                listingIndex.index(property, dto);
+            } else {
+                listingIndex.remove(property.getId());
+            }
+        }
+        log.debug("Catalog refreshed for property {} (active: {})", property.getId(), dto != null);
+    }
+
+    private void apply(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            PropertyDTO previous = listings.remove(propertyId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (ListingIndex listingIndex : listingIndexes) {
+            listingIndex.remove(propertyId);
+        }
+        log.debug("Property {} removed from catalog", propertyId);
+    }
+
+    public List<PropertyDTO> findAll() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return collect(new TreeSet<>(listings.keySet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PropertyDTO> findByCity(String city) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return collect(cityIndex.get(fold(city)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PropertyDTO> findBySharingType(String sharingType) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return collect(sharingTypeIndex.get(fold(sharingType)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PropertyDTO> findByFoodIncluded(Boolean foodIncluded) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return collect(foodIndex.get(foodIncluded));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PropertyDTO> findByRentBetween(Integer minRent, Integer maxRent) {
+        ensureLoaded();
+        if (minRent == null || maxRent == null || minRent > maxRent) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new TreeSet<>();
+            rentIndex.subMap(minRent, true, maxRent, true).values().forEach(ids::addAll);
+            return collect(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public PropertyDTO findById(Long propertyId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return listings.get(propertyId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return listings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Convert Property to PropertyDTO
+     * All property data including image URLs are accessible to clients.
+     * Image URLs are public Cloudinary URLs that work for all authenticated users.
+     */
+    public PropertyDTO toDTO(Property property) {
+        PropertyDTO dto = new PropertyDTO();
+        dto.setPropertyId(property.getId());
+
+        if (property.getOwner() != null) {
+            dto.setOwnerId(property.getOwner().getId());
+        }
+
+        dto.setPropertyName(property.getPropertyName());
+        dto.setAddress(property.getAddress());
+        dto.setCity(property.getCity());
+        dto.setState(property.getState());
+        dto.setPincode(property.getPincode());
+
+        if (property.getRentAmount() != null) {
+            dto.setRentAmount(Double.valueOf(property.getRentAmount()));
+        }
+
+        dto.setSharingType(property.getSharingType());
+        dto.setMaxCapacity(property.getMaxCapacity());
+        dto.setAvailableBeds(property.getAvailableBeds());
+        dto.setFoodIncluded(property.getFoodIncluded());
+        dto.setDescription(property.getDescription());
+        dto.setStatus(property.getStatus());
+        dto.setMapLink(property.getMapLink());
+        dto.setLatitude(property.getLatitude());
+        dto.setLongitude(property.getLongitude());
+        dto.setLocationPrecision(property.getLocationPrecision());
+        dto.setImageUrl(property.getImageUrl());
+        dto.setAmenities(property.getAmenities());
+        dto.setAmenityMask(property.getAmenityMask());
+        dto.setUpdatedAt(property.getUpdatedAt());
+
+        if (property.getReviews() != null) {
+            dto.setReviews(property.getReviews());
+        } else {
+            dto.setReviews(0);
+        }
+
+        return dto;
+    }
+
+    /**
+     * Card view of a listing for list responses: no description and only the first image
+     */
+    public PropertyDTO toCard(Property property) {
+        PropertyDTO dto = toDTO(property);
+        dto.setDescription(null);
+        dto.setImageUrl(firstImage(property.getImageUrl()));
+        return dto;
+    }
+
+    public PropertyDTO toCard(PropertyCardView card) {
+        PropertyDTO dto = new PropertyDTO();
+        dto.setPropertyId(card.getId());
+        dto.setOwnerId(card.getOwnerId());
+        dto.setPropertyName(card.getPropertyName());
+        dto.setAddress(card.getAddress());
+        dto.setCity(card.getCity());
+        dto.setState(card.getState());
+        dto.setPincode(card.getPincode());
+        if (card.getRentAmount() != null) {
+            dto.setRentAmount(Double.valueOf(card.getRentAmount()));
+        }
+        dto.setSharingType(card.getSharingType());
+        dto.setMaxCapacity(card.getMaxCapacity());
+        dto.setAvailableBeds(card.getAvailableBeds());
+        dto.setFoodIncluded(card.getFoodIncluded());
+        dto.setStatus(card.getStatus());
+        dto.setMapLink(card.getMapLink());
+        dto.setLatitude(card.getLatitude());
+        dto.setLongitude(card.getLongitude());
+        dto.setLocationPrecision(card.getLocationPrecision());
+        dto.setImageUrl(card.getImageUrl());
+        dto.setAmenities(card.getAmenities());
+        dto.setAmenityMask(card.getAmenityMask());
+        dto.setReviews(card.getReviews() != null ? card.getReviews() : 0);
+        dto.setUpdatedAt(card.getUpdatedAt());
+        return dto;
+    }
+
+    /**
+     * First URL of a stored image list (comma separated or a JSON array)
+     */
+    static String firstImage(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        int comma = imageUrl.indexOf(',');
+        String first = comma >= 0 ? imageUrl.substring(0, comma) : imageUrl;
+        first = first.trim();
+        if (first.startsWith("[")) {
+            first = first.substring(1).trim();
+        }
+        if (first.endsWith("]")) {
+            first = first.substring(0, first.length() - 1).trim();
+        }
+        if (first.length() >= 2 && first.startsWith("\"") && first.endsWith("\"")) {
+            first = first.substring(1, first.length() - 1);
+        }
+        return first;
+    }
+
+    /**
+     * Load the catalog (and its indexes) if the startup load has not run yet
+     */
+    public void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    private void add(PropertyDTO dto) {
+        Long id = dto.getPropertyId();
+        listings.put(id, dto);
+        if (dto.getCity() != null) {
+            cityIndex.computeIfAbsent(fold(dto.getCity()), k -> new TreeSet<>()).add(id);
+        }
+        if (dto.getSharingType() != null) {
+            sharingTypeIndex.computeIfAbsent(fold(dto.getSharingType()), k -> new TreeSet<>()).add(id);
+        }
+        if (dto.getFoodIncluded() != null) {
+            foodIndex.computeIfAbsent(dto.getFoodIncluded(), k -> new TreeSet<>()).add(id);
+        }
+        if (dto.getRentAmount() != null) {
+            rentIndex.computeIfAbsent(dto.getRentAmount().intValue(), k -> new TreeSet<>()).add(id);
+        }
+    }
+
+    private void unindex(PropertyDTO dto) {
+        Long id = dto.getPropertyId();
+        if (dto.getCity() != null) {
+            removeFrom(cityIndex, fold(dto.getCity()), id);
+        }
+        if (dto.getSharingType() != null) {
+            removeFrom(sharingTypeIndex, fold(dto.getSharingType()), id);
+        }
+        if (dto.getFoodIncluded() != null) {
+            removeFrom(foodIndex, dto.getFoodIncluded(), id);
+        }
+        if (dto.getRentAmount() != null) {
+            removeFrom(rentIndex, dto.getRentAmount().intValue(), id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Long>> index, K key, Long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void clearIndexes() {
+        listings.clear();
+        cityIndex.clear();
+        sharingTypeIndex.clear();
+        foodIndex.clear();
+        rentIndex.clear();
+    }
+
+    private List<PropertyDTO> collect(Collection<Long> ids) {
+        List<PropertyDTO> result = new ArrayList<>();
+        if (ids == null) {
+            return result;
+        }
+        for (Long id : ids) {
+            PropertyDTO dto = listings.get(id);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    static String fold(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
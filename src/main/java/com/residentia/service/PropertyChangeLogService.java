@@ -0,0 +1,199 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyChangesResponse;
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.PropertyChange;
+import com.residentia.event.PropertyChangedEvent;
+import com.residentia.exception.CursorExpiredException;
+import com.residentia.repository.PropertyCardView;
+import com.residentia.repository.PropertyChangeRepository;
+import com.residentia.repository.PropertyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of listing writes, read by client apps to sync their local catalog.
+ *
+ * Every PropertyChangedEvent appends a row synchronously, i.e. inside the transaction
+ * that wrote the listing, so a change is logged exactly when it commits. Clients page
+ * through rows after their cursor and get the current card of each changed listing
+ * (or its id when it is gone), never the intermediate states.
+ *
+ * Auto-increment ids are assigned at insert but become visible at commit, so a
+ * missing id may belong to a transaction that is still open. Pages and cursors stop
+ * before the first such gap until rows after it are gapTimeoutSeconds old (database
+ * clock); by then the gap is taken to be a rollback. A listing transaction open
+ * longer than that after logging its change would be missed by clients that
+ * already moved past it. Assumes auto_increment_increment = 1.
+ */
+@Slf4j
+@Service
+public class PropertyChangeLogService {
+
+    public static final int DEFAULT_LIMIT = 200;
+    public static final int MAX_LIMIT = 1000;
+
+    private static final String ACTIVE = "ACTIVE";
+
+    @Autowired
+    private PropertyChangeRepository propertyChangeRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PropertyCatalogService propertyCatalogService;
+
+    @Value("${catalog.change-log.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${catalog.change-log.gap-timeout-seconds:300}")
+    private long gapTimeoutSeconds;
+
+    @EventListener
+    @Transactional
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getPropertyId() == null) {
+            return;
+        }
+        PropertyChange change = new PropertyChange();
+        change.setPropertyId(event.getPropertyId());
+        change.setChangeType(event.getChangeType().name());
+        propertyChangeRepository.save(change);
+    }
+
+    /**
+     * Changes after a cursor. Without a cursor, returns no listings and the cursor to
+     * start from: take it before downloading the full catalog.
+     *
+     * @throws CursorExpiredException when the cursor's rows have been pruned
+     */
+    @Transactional(readOnly = true)
+    public PropertyChangesResponse changesSince(String cursor, Integer limit) {
+        Long first = propertyChangeRepository.findFirstId();
+        long settled = settledId(first);
+        if (!StringUtils.hasText(cursor)) {
+            return new PropertyChangesResponse(new ArrayList<>(), new ArrayList<>(),
+                    String.valueOf(lastReadable(settled)), false);
+        }
+
+        long since = parseCursor(cursor);
+        // Rows between the cursor and the oldest row were pruned
+        if (first != null && since + 1 < first) {
+            throw new CursorExpiredException("Cursor " + cursor + " is older than the change log");
+        }
+
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<PropertyChange> rows = propertyChangeRepository.findAfter(since, PageRequest.of(0, pageSize + 1));
+        List<PropertyChange> changes = new ArrayList<>();
+        long previous = since;
+        boolean blocked = false;
+        for (PropertyChange row : rows) {
+            if (changes.size() == pageSize) {
+                break;
+            }
+            if (!readable(previous, row.getId(), settled)) {
+                blocked = true;
+                break;
+            }
+            changes.add(row);
+            previous = row.getId();
+        }
+        boolean hasMore = !blocked && rows.size() > pageSize;
+        if (changes.isEmpty()) {
+            return new PropertyChangesResponse(new ArrayList<>(), new ArrayList<>(), cursor, false);
+        }
+
+        Set<Long> ids = changes.stream()
+                .map(PropertyChange::getPropertyId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        // Current state decides, whatever sequence of changes led to it
+        Map<Long, PropertyCardView> current = propertyRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(PropertyCardView::getId, Function.identity()));
+        List<PropertyDTO> upserted = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Long id : ids) {
+            PropertyCardView card = current.get(id);
+            if (card != null && ACTIVE.equalsIgnoreCase(card.getStatus())) {
+                upserted.add(propertyCatalogService.toCard(card));
+            } else {
+                removed.add(id);
+            }
+        }
+        String nextCursor = String.valueOf(changes.get(changes.size() - 1).getId());
+        log.debug("Change log page after {}: {} upserted, {} removed", cursor, upserted.size(), removed.size());
+        return new PropertyChangesResponse(upserted, removed, nextCursor, hasMore);
+    }
+
+    /**
+     * Highest id whose row is older than the gap timeout; gaps below it are rollbacks.
+     * Before the oldest row everything was pruned, so that counts as settled too.
+     */
+    private long settledId(Long first) {
+        Long aged = propertyChangeRepository.findLastIdOlderThan(gapTimeoutSeconds);
+        long pruned = first != null ? first - 1 : 0;
+        return Math.max(aged != null ? aged : 0, pruned);
+    }
+
+    // A row can be read after previous unless an id between them may still commit
+    private static boolean readable(long previous, long id, long settled) {
+        return id == previous + 1 || id <= settled;
+    }
+
+    /**
+     * Last id a client can safely take as its cursor: the end of the run of
+     * readable rows after settled
+     */
+    private long lastReadable(long settled) {
+        long previous = settled;
+        while (true) {
+            List<Long> ids = propertyChangeRepository.findIdsAfter(previous, PageRequest.of(0, MAX_LIMIT));
+            for (Long id : ids) {
+                if (!readable(previous, id, settled)) {
+                    return previous;
+                }
+                previous = id;
+            }
+            if (ids.size() < MAX_LIMIT) {
+                return previous;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${catalog.change-log.prune-cron:0 30 3 * * *}")
+    @Transactional
+    public void prune() {
+        int deleted = propertyChangeRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Pruned {} change log rows older than {} days", deleted, retentionDays);
+        }
+    }
+
+    private static long parseCursor(String cursor) {
+        try {
+            long since = Long.parseLong(cursor.trim());
+            if (since < 0) {
+                throw new NumberFormatException();
+            }
+            return since;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
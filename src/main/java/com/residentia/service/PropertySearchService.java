@@ -0,0 +1,498 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.PropertySearchCriteria;
+import com.residentia.dto.PropertySearchResponse;
+import com.residentia.entity.Property;
+import com.residentia.repository.PropertyRepository;
+import com.residentia.repository.PropertySpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Composite client search.
+ *
+ * All filters are pushed down to MySQL as one Specification query, and results are
+ * paged with a seek cursor on (sort key, id) instead of OFFSET, so every page costs
+ * the same no matter how deep the client scrolls or how many listings match.
+ * The query selects ids only (answerable from the search indexes) and the cards are
+ * taken from the in-memory catalog.
+ *
+ * Free-text searches (q) are answered in memory instead: ListingTextIndex ranks the
+ * matches and the remaining filters are checked against the catalog cards.
+ *
+ * The first page of either path also carries facet counts from ListingFacetIndex.
+ *
+ * Stay dates (checkIn/checkOut) are checked per card against BookingAvailabilityIndex,
+ * so searches with them are answered from the catalog too; the fully booked ids
+ * are never sent to MySQL.
+ */
+@Slf4j
+@Service
+public class PropertySearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    public static final double MAX_RADIUS_KM = 50;
+
+    private static final String ACTIVE = "ACTIVE";
+
+    public enum SortOrder {
+        RELEVANCE,
+        RENT_ASC,
+        RENT_DESC,
+        NEWEST
+    }
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PropertyCatalogService propertyCatalogService;
+
+    @Autowired
+    private ListingTextIndex listingTextIndex;
+
+    @Autowired
+    private ListingGeoIndex listingGeoIndex;
+
+    @Autowired
+    private ListingFacetIndex listingFacetIndex;
+
+    @Autowired
+    private ListingCityIndex listingCityIndex;
+
+    @Autowired
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+
+    public PropertySearchResponse search(PropertySearchCriteria request) {
+        String correctedCity = correctCity(request);
+        PropertySearchCriteria criteria = withCity(request, correctedCity);
+        boolean fullText = StringUtils.hasText(criteria.getQ());
+        SortOrder sortOrder = parseSort(criteria.getSort(), fullText);
+        int limit = resolveLimit(criteria.getLimit());
+        validateStay(criteria);
+        log.info("Searching properties: {} (sort: {}, limit: {})", criteria, sortOrder, limit);
+
+        if (!fullText && sortOrder == SortOrder.RELEVANCE) {
+            throw new IllegalArgumentException("Sort order RELEVANCE requires a q parameter");
+        }
+        PropertySearchResponse response;
+        if (fullText) {
+            response = searchText(criteria, sortOrder, limit);
+        } else if (criteria.getCheckIn() != null) {
+            response = searchCatalog(criteria, sortOrder, limit);
+        } else {
+            response = searchDatabase(criteria, sortOrder, limit);
+        }
+        if (!StringUtils.hasText(criteria.getCursor())) {
+            response.setFacets(facetCounts(criteria));
+        }
+        response.setCorrectedCity(correctedCity);
+        return response;
+    }
+
+    /**
+     * SQL path for structured filters
+     */
+    private PropertySearchResponse searchDatabase(PropertySearchCriteria criteria, SortOrder sortOrder, int limit) {
+        Specification<Property> spec = buildSpecification(criteria);
+        if (StringUtils.hasText(criteria.getCursor())) {
+            spec = spec.and(seekPredicate(decodeCursor(criteria.getCursor(), sortOrder), sortOrder));
+        }
+
+        // Fetch one extra id to know whether another page exists
+        List<Long> ids = propertyRepository.findIds(spec, sortFor(sortOrder), limit + 1);
+
+        boolean hasMore = ids.size() > limit;
+        List<PropertyDTO> items = loadCards(hasMore ? ids.subList(0, limit) : ids);
+        String nextCursor = hasMore && !items.isEmpty()
+                ? encodeCursor(items.get(items.size() - 1), sortOrder)
+                : null;
+        log.info("Search returned {} properties (more: {})", items.size(), hasMore);
+        return new PropertySearchResponse(items, nextCursor);
+    }
+
+    /**
+     * Listings within radiusKm of a point, nearest first, with the same card filters
+     * as search (q, sort and cursor are ignored). Each item carries its distanceKm.
+     */
+    public PropertySearchResponse searchNearby(double latitude, double longitude, double radiusKm,
+                                               PropertySearchCriteria request) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + "," + longitude);
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("radiusKm must be between 0 and " + MAX_RADIUS_KM);
+        }
+        String correctedCity = correctCity(request);
+        PropertySearchCriteria criteria = withCity(request, correctedCity);
+        int limit = resolveLimit(criteria.getLimit());
+        validateStay(criteria);
+        log.info("Searching properties within {} km of {},{}: {}", radiusKm, latitude, longitude, criteria);
+
+        propertyCatalogService.ensureLoaded();
+        Predicate<PropertyDTO> filter = cardFilter(criteria);
+        List<PropertyDTO> items = new ArrayList<>();
+        for (ListingGeoIndex.Nearby nearby : listingGeoIndex.findWithin(latitude, longitude, radiusKm, id -> true)) {
+            PropertyDTO card = propertyCatalogService.findById(nearby.getPropertyId());
+            if (card == null || !filter.test(card)) {
+                continue;
+            }
+            PropertyDTO item = new PropertyDTO();
+            BeanUtils.copyProperties(card, item);
+            item.setDistanceKm(Math.round(nearby.getDistanceKm() * 100) / 100.0);
+            items.add(item);
+            if (items.size() == limit) {
+                break;
+            }
+        }
+        log.info("Nearby search returned {} properties", items.size());
+        PropertySearchResponse response = new PropertySearchResponse(items, null);
+        response.setCorrectedCity(correctedCity);
+        return response;
+    }
+
+    /**
+     * Known city to use instead of a misspelled criteria.city, or null
+     */
+    private String correctCity(PropertySearchCriteria criteria) {
+        if (!StringUtils.hasText(criteria.getCity())) {
+            return null;
+        }
+        // The city matcher is filled by the catalog load
+        propertyCatalogService.ensureLoaded();
+        String correctedCity = listingCityIndex.correct(criteria.getCity());
+        if (correctedCity != null) {
+            log.info("Corrected city '{}' to '{}'", criteria.getCity(), correctedCity);
+        }
+        return correctedCity;
+    }
+
+    private static void validateStay(PropertySearchCriteria criteria) {
+        if ((criteria.getCheckIn() == null) != (criteria.getCheckOut() == null)) {
+            throw new IllegalArgumentException("checkIn and checkOut must be given together");
+        }
+        if (criteria.getCheckIn() != null && !criteria.getCheckOut().isAfter(criteria.getCheckIn())) {
+            throw new IllegalArgumentException("checkOut must be after checkIn");
+        }
+    }
+
+    // Copy so the caller's criteria (and its logged form) keep what the client sent
+    private static PropertySearchCriteria withCity(PropertySearchCriteria criteria, String city) {
+        if (city == null) {
+            return criteria;
+        }
+        PropertySearchCriteria copy = new PropertySearchCriteria();
+        BeanUtils.copyProperties(criteria, copy);
+        copy.setCity(city);
+        return copy;
+    }
+
+    /**
+     * In-memory path for free-text queries
+     */
+    private PropertySearchResponse searchText(PropertySearchCriteria criteria, SortOrder sortOrder, int limit) {
+        propertyCatalogService.ensureLoaded();
+        Predicate<PropertyDTO> filter = cardFilter(criteria);
+        LongPredicate accept = id -> {
+            PropertyDTO card = propertyCatalogService.findById(id);
+            return card != null && filter.test(card);
+        };
+        long[] cursor = StringUtils.hasText(criteria.getCursor())
+                ? decodeCursor(criteria.getCursor(), sortOrder)
+                : null;
+
+        List<PropertyDTO> items = new ArrayList<>();
+        String nextCursor = null;
+        if (sortOrder == SortOrder.RELEVANCE) {
+            ListingTextIndex.Hit after = cursor != null
+                    ? new ListingTextIndex.Hit(cursor[1], Float.intBitsToFloat((int) cursor[0]))
+                    : null;
+            List<ListingTextIndex.Hit> hits = listingTextIndex.search(criteria.getQ(), accept, after, limit + 1);
+            ListingTextIndex.Hit last = null;
+            for (ListingTextIndex.Hit hit : hits.subList(0, Math.min(limit, hits.size()))) {
+                PropertyDTO card = propertyCatalogService.findById(hit.getPropertyId());
+                if (card != null) {
+                    items.add(card);
+                    last = hit;
+                }
+            }
+            if (hits.size() > limit && last != null) {
+                nextCursor = encodeCursor(sortOrder, Float.floatToIntBits(last.getScore()), last.getPropertyId());
+            }
+        } else {
+            // Any other order needs every match before it can page
+            PropertySearchResponse page = sortedPage(
+                    listingTextIndex.search(criteria.getQ(), accept, null, Integer.MAX_VALUE).stream()
+                            .map(hit -> propertyCatalogService.findById(hit.getPropertyId()))
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList()),
+                    sortOrder, cursor, limit);
+            items = page.getItems();
+            nextCursor = page.getNextCursor();
+        }
+        log.info("Text search returned {} properties (more: {})", items.size(), nextCursor != null);
+        return new PropertySearchResponse(items, nextCursor);
+    }
+
+    /**
+     * In-memory path for structured filters with stay dates
+     */
+    private PropertySearchResponse searchCatalog(PropertySearchCriteria criteria, SortOrder sortOrder, int limit) {
+        propertyCatalogService.ensureLoaded();
+        long[] cursor = StringUtils.hasText(criteria.getCursor())
+                ? decodeCursor(criteria.getCursor(), sortOrder)
+                : null;
+        List<PropertyDTO> matches = propertyCatalogService.findAll().stream()
+                .filter(cardFilter(criteria))
+                .collect(Collectors.toList());
+        PropertySearchResponse page = sortedPage(matches, sortOrder, cursor, limit);
+        log.info("Catalog search returned {} properties (more: {})", page.getItems().size(),
+                page.getNextCursor() != null);
+        return page;
+    }
+
+    /**
+     * One page of cards in cardOrder, after the cursor position if there is one
+     */
+    private PropertySearchResponse sortedPage(List<PropertyDTO> matches, SortOrder sortOrder, long[] cursor,
+                                              int limit) {
+        Comparator<PropertyDTO> order = cardOrder(sortOrder);
+        PropertyDTO after = cursor != null ? cursorCard(cursor, sortOrder) : null;
+        List<PropertyDTO> page = matches.stream()
+                .filter(card -> after == null || order.compare(card, after) > 0)
+                .sorted(order)
+                .limit(limit + 1L)
+                .collect(Collectors.toList());
+        boolean hasMore = page.size() > limit;
+        List<PropertyDTO> items = hasMore ? page.subList(0, limit) : page;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1), sortOrder) : null;
+        return new PropertySearchResponse(items, nextCursor);
+    }
+
+    /**
+     * Same filters as buildSpecification, evaluated against a catalog card
+     */
+    private Predicate<PropertyDTO> cardFilter(PropertySearchCriteria criteria) {
+        Predicate<PropertyDTO> filter = card -> true;
+        if (StringUtils.hasText(criteria.getCity())) {
+            String city = PropertyCatalogService.fold(criteria.getCity());
+            filter = filter.and(card -> city.equals(PropertyCatalogService.fold(card.getCity())));
+        }
+        if (criteria.getMinBudget() != null) {
+            int minBudget = criteria.getMinBudget();
+            filter = filter.and(card -> card.getRentAmount() != null && card.getRentAmount() >= minBudget);
+        }
+        if (criteria.getMaxBudget() != null) {
+            int maxBudget = criteria.getMaxBudget();
+            filter = filter.and(card -> card.getRentAmount() != null && card.getRentAmount() <= maxBudget);
+        }
+        if (StringUtils.hasText(criteria.getSharingType())) {
+            String sharingType = PropertyCatalogService.fold(criteria.getSharingType());
+            filter = filter.and(card -> sharingType.equals(PropertyCatalogService.fold(card.getSharingType())));
+        }
+        if (criteria.getFoodIncluded() != null) {
+            Boolean foodIncluded = criteria.getFoodIncluded();
+            filter = filter.and(card -> foodIncluded.equals(card.getFoodIncluded()));
+        }
+        if (StringUtils.hasText(criteria.getAmenities())) {
+            long mask = AmenityDictionary.parseFilter(criteria.getAmenities());
+            filter = filter.and(card -> card.getAmenityMask() != null && (card.getAmenityMask() & mask) == mask);
+        }
+        if (Boolean.TRUE.equals(criteria.getAvailableOnly())) {
+            filter = filter.and(card -> card.getAvailableBeds() != null && card.getAvailableBeds() > 0);
+        }
+        if (criteria.getCheckIn() != null) {
+            LocalDate checkIn = criteria.getCheckIn();
+            LocalDate checkOut = criteria.getCheckOut();
+            filter = filter.and(card -> bookingAvailabilityIndex.isAvailable(card.getPropertyId(), checkIn, checkOut));
+        }
+        return filter;
+    }
+
+    /**
+     * In-memory equivalent of sortFor
+     */
+    private Comparator<PropertyDTO> cardOrder(SortOrder sortOrder) {
+        Comparator<PropertyDTO> byRent = Comparator.comparingDouble(
+                card -> card.getRentAmount() != null ? card.getRentAmount() : 0);
+        Comparator<PropertyDTO> byId = Comparator.comparingLong(PropertyDTO::getPropertyId);
+        switch (sortOrder) {
+            case RENT_DESC:
+                return byRent.reversed().thenComparing(byId.reversed());
+            case NEWEST:
+                return byId.reversed();
+            default:
+                return byRent.thenComparing(byId);
+        }
+    }
+
+    /**
+     * Placeholder card carrying the cursor position, for comparing with cardOrder
+     */
+    private PropertyDTO cursorCard(long[] cursor, SortOrder sortOrder) {
+        PropertyDTO card = new PropertyDTO();
+        card.setPropertyId(cursor[1]);
+        if (sortOrder != SortOrder.NEWEST) {
+            card.setRentAmount((double) cursor[0]);
+        }
+        return card;
+    }
+
+    private Map<String, Map<String, Integer>> facetCounts(PropertySearchCriteria criteria) {
+        propertyCatalogService.ensureLoaded();
+        RoaringBitmap textMatches = null;
+        if (StringUtils.hasText(criteria.getQ())) {
+            textMatches = new RoaringBitmap();
+            List<ListingTextIndex.Hit> hits = listingTextIndex.search(criteria.getQ(), id -> true, null,
+                    Integer.MAX_VALUE);
+            for (ListingTextIndex.Hit hit : hits) {
+                textMatches.add(Math.toIntExact(hit.getPropertyId()));
+            }
+        }
+        RoaringBitmap fullyBooked = null;
+        if (criteria.getCheckIn() != null) {
+            fullyBooked = new RoaringBitmap();
+            for (Long id : bookingAvailabilityIndex.fullyBooked(criteria.getCheckIn(), criteria.getCheckOut())) {
+                fullyBooked.add(Math.toIntExact(id));
+            }
+        }
+        return listingFacetIndex.counts(criteria, textMatches, fullyBooked);
+    }
+
+    /**
+     * Cards for the given ids in the same order, from the catalog where possible
+     */
+    private List<PropertyDTO> loadCards(List<Long> ids) {
+        Map<Long, PropertyDTO> cards = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            PropertyDTO card = propertyCatalogService.findById(id);
+            if (card != null) {
+                cards.put(id, card);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // Written after the catalog last refreshed on this node
+            propertyRepository.findCardsByIdIn(missing)
+                    .forEach(view -> cards.put(view.getId(), propertyCatalogService.toCard(view)));
+        }
+        return ids.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Specification<Property> buildSpecification(PropertySearchCriteria criteria) {
+        Specification<Property> spec = PropertySpecifications.hasStatus(ACTIVE);
+        if (StringUtils.hasText(criteria.getCity())) {
+            spec = spec.and(PropertySpecifications.inCity(criteria.getCity()));
+        }
+        if (criteria.getMinBudget() != null || criteria.getMaxBudget() != null) {
+            spec = spec.and(PropertySpecifications.rentBetween(criteria.getMinBudget(), criteria.getMaxBudget()));
+        }
+        if (StringUtils.hasText(criteria.getSharingType())) {
+            spec = spec.and(PropertySpecifications.hasSharingType(criteria.getSharingType()));
+        }
+        if (criteria.getFoodIncluded() != null) {
+            spec = spec.and(PropertySpecifications.foodIncluded(criteria.getFoodIncluded()));
+        }
+        if (StringUtils.hasText(criteria.getAmenities())) {
+            long mask = AmenityDictionary.parseFilter(criteria.getAmenities());
+            spec = spec.and(PropertySpecifications.hasAmenities(mask));
+        }
+        if (Boolean.TRUE.equals(criteria.getAvailableOnly())) {
+            spec = spec.and(PropertySpecifications.hasAvailableBeds());
+        }
+        return spec;
+    }
+
+    private Sort sortFor(SortOrder sortOrder) {
+        switch (sortOrder) {
+            case RENT_DESC:
+                return Sort.by(Sort.Order.desc("rentAmount"), Sort.Order.desc("id"));
+            case NEWEST:
+                return Sort.by(Sort.Order.desc("id"));
+            default:
+                return Sort.by(Sort.Order.asc("rentAmount"), Sort.Order.asc("id"));
+        }
+    }
+
+    private Specification<Property> seekPredicate(long[] cursor, SortOrder sortOrder) {
+        switch (sortOrder) {
+            case RENT_DESC:
+                return PropertySpecifications.afterRent((int) cursor[0], cursor[1], true);
+            case NEWEST:
+                return PropertySpecifications.idBefore(cursor[1]);
+            default:
+                return PropertySpecifications.afterRent((int) cursor[0], cursor[1], false);
+        }
+    }
+
+    /**
+     * Cursor format (base64url): SORT|sortKey|id
+     */
+    private String encodeCursor(PropertyDTO last, SortOrder sortOrder) {
+        long sortKey = sortOrder == SortOrder.NEWEST ? last.getPropertyId() : last.getRentAmount().longValue();
+        return encodeCursor(sortOrder, sortKey, last.getPropertyId());
+    }
+
+    private String encodeCursor(SortOrder sortOrder, long sortKey, long id) {
+        String raw = sortOrder.name() + "|" + sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long[] decodeCursor(String cursor, SortOrder sortOrder) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !sortOrder.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not match sort order " + sortOrder);
+            }
+            return new long[] { Long.parseLong(parts[1]), Long.parseLong(parts[2]) };
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor, e);
+        }
+    }
+
+    private SortOrder parseSort(String sort, boolean fullText) {
+        if (!StringUtils.hasText(sort)) {
+            return fullText ? SortOrder.RELEVANCE : SortOrder.RENT_ASC;
+        }
+        try {
+            return SortOrder.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort order: " + sort);
+        }
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
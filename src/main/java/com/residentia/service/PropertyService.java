@@ -5,13 +5,18 @@ import com.residentia.dto.PropertyDTO;
 import com.residentia.entity.Owner;
 import com.residentia.entity.Property;
 import com.residentia.entity.Request;
+import com.residentia.event.PropertyChangedEvent;
 import com.residentia.exception.ResourceNotFoundException;
 import com.residentia.repository.OwnerRepository;
 import com.residentia.repository.PropertyRepository;
 import com.residentia.repository.RequestRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -29,6 +34,22 @@ public class PropertyService {
     @Autowired
     private RequestRepository requestRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PropertyCatalogService propertyCatalogService;
+
+    @Autowired
+    private GeoLocationService geoLocationService;
+
+    @Autowired
+    private BedInventoryService bedInventoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Transactional
     public Property createProperty(Long ownerId, PropertyDTO propertyDTO) {
         log.info("Creating property for owner: {}", ownerId);
 
@@ -45,17 +66,24 @@ public class PropertyService {
         property.setRentAmount(propertyDTO.getRentAmount().intValue());
         property.setSharingType(propertyDTO.getSharingType());
         property.setMaxCapacity(propertyDTO.getMaxCapacity());
-        property.setAvailableBeds(propertyDTO.getAvailableBeds());
+        // No bookings yet; afterwards the count is derived by BedInventoryService
+        property.setAvailableBeds(BookingAvailabilityIndex.beds(propertyDTO.getMaxCapacity()));
         property.setFoodIncluded(propertyDTO.getFoodIncluded());
         property.setDescription(propertyDTO.getDescription());
         property.setStatus(propertyDTO.getStatus() != null ? propertyDTO.getStatus() : "ACTIVE");
         property.setAmenities(propertyDTO.getAmenities());
         // Image URL is stored as public Cloudinary URL - accessible by all authenticated users (owner, client, admin)
         property.setImageUrl(propertyDTO.getImageUrl());
+        property.setMapLink(propertyDTO.getMapLink());
+        property.setAmenityMask(AmenityDictionary.toMask(property.getAmenities()));
+        geoLocationService.locate(property);
 
-        return propertyRepository.save(property);
+        Property savedProperty = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.created(savedProperty));
+        return savedProperty;
     }
 
+    @Transactional
     public Request createPropertyRequest(Long ownerId, PropertyDTO propertyDTO) {
         log.info("Creating property request for owner: {}", ownerId);
 
@@ -73,14 +101,18 @@ public class PropertyService {
         tempProperty.setRentAmount(propertyDTO.getRentAmount() != null ? propertyDTO.getRentAmount().intValue() : 0);
         tempProperty.setSharingType(propertyDTO.getSharingType());
         tempProperty.setMaxCapacity(propertyDTO.getMaxCapacity() != null ? propertyDTO.getMaxCapacity() : 0);
-        tempProperty.setAvailableBeds(propertyDTO.getAvailableBeds() != null ? propertyDTO.getAvailableBeds() : 0);
+        tempProperty.setAvailableBeds(BookingAvailabilityIndex.beds(tempProperty.getMaxCapacity()));
         tempProperty.setFoodIncluded(propertyDTO.getFoodIncluded() != null ? propertyDTO.getFoodIncluded() : false);
         tempProperty.setDescription(propertyDTO.getDescription());
         tempProperty.setAmenities(propertyDTO.getAmenities());
         // Image URL stored as public Cloudinary URL - viewable by all users regardless of role
         tempProperty.setImageUrl(propertyDTO.getImageUrl());
+        tempProperty.setMapLink(propertyDTO.getMapLink());
+        tempProperty.setAmenityMask(AmenityDictionary.toMask(tempProperty.getAmenities()));
+        geoLocationService.locate(tempProperty);
         tempProperty.setStatus("PENDING");
         tempProperty = propertyRepository.save(tempProperty);
+        eventPublisher.publishEvent(PropertyChangedEvent.created(tempProperty));
 
         // Create request with property details in JSON
         Request request = new Request();
@@ -134,7 +166,30 @@ public class PropertyService {
         return requestRepository.save(request);
     }
 
+    /**
+     * Apply the non-null fields of propertyDTO. Bed recounts bump the listing's
+     * version, so an attempt that loses to one is retried on a fresh copy.
+     */
     public Property updateProperty(Long propertyId, PropertyDTO propertyDTO) {
+        return OptimisticRetry.run("Update property " + propertyId,
+                () -> new TransactionTemplate(transactionManager)
+                        .execute(status -> applyUpdate(propertyId, propertyDTO)));
+    }
+
+    /**
+     * Set a listing's status (admin approval or rejection)
+     */
+    @Transactional
+    public Property updateStatus(Long propertyId, String status) {
+        Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Property not found with id: " + propertyId));
+        property.setStatus(status);
+        Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.updated(saved));
+        return saved;
+    }
+
+    private Property applyUpdate(Long propertyId, PropertyDTO propertyDTO) {
         log.info("🔄 Updating property: {}", propertyId);
         log.info("📥 Received imageUrl: {}", propertyDTO.getImageUrl());
 
@@ -151,17 +206,24 @@ public class PropertyService {
         if (propertyDTO.getRentAmount() != null) property.setRentAmount(propertyDTO.getRentAmount().intValue());
         if (propertyDTO.getSharingType() != null) property.setSharingType(propertyDTO.getSharingType());
         if (propertyDTO.getMaxCapacity() != null) property.setMaxCapacity(propertyDTO.getMaxCapacity());
-        if (propertyDTO.getAvailableBeds() != null) property.setAvailableBeds(propertyDTO.getAvailableBeds());
         if (propertyDTO.getFoodIncluded() != null) property.setFoodIncluded(propertyDTO.getFoodIncluded());
         if (propertyDTO.getDescription() != null) property.setDescription(propertyDTO.getDescription());
         if (propertyDTO.getStatus() != null) property.setStatus(propertyDTO.getStatus());
         if (propertyDTO.getAmenities() != null) property.setAmenities(propertyDTO.getAmenities());
+        if (propertyDTO.getMapLink() != null) property.setMapLink(propertyDTO.getMapLink());
+        property.setAmenityMask(AmenityDictionary.toMask(property.getAmenities()));
+        geoLocationService.locate(property);
         if (propertyDTO.getImageUrl() != null) {
             log.info("📷 Updating imageUrl from {} to {}", property.getImageUrl(), propertyDTO.getImageUrl());
             property.setImageUrl(propertyDTO.getImageUrl());
         }
 
         Property savedProperty = propertyRepository.save(property);
+        // availableBeds is not taken from the request; a new capacity changes it
+        if (propertyDTO.getMaxCapacity() != null) {
+            bedInventoryService.recount(savedProperty.getId());
+        }
+        eventPublisher.publishEvent(PropertyChangedEvent.updated(savedProperty));
         log.info("✅ Property saved with imageUrl: {}", savedProperty.getImageUrl());
         return savedProperty;
     }
@@ -178,10 +240,12 @@ public class PropertyService {
     public List<PropertyDTO> getOwnerProperties(Long ownerId) {
         log.info("Fetching properties for owner: {}", ownerId);
 
-        List<Property> properties = propertyRepository.findByOwnerId(ownerId);
-        return properties.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return propertyRepository.findCardsByOwnerId(ownerId).stream()
+                .map(propertyCatalogService::toCard)
+                .collect(Collectors.toList());
     }
 
+    @Transactional
     public void deleteProperty(Long propertyId) {
         log.info("Deleting property: {}", propertyId);
 
@@ -189,6 +253,7 @@ public class PropertyService {
                 .orElseThrow(() -> new ResourceNotFoundException("Property not found with id: " + propertyId));
 
         propertyRepository.delete(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(property));
     }
 
     private PropertyDTO convertToDTO(Property property) {
@@ -216,6 +281,9 @@ public class PropertyService {
         dto.setDescription(property.getDescription());
         dto.setStatus(property.getStatus());
         dto.setMapLink(property.getMapLink());
+        dto.setLatitude(property.getLatitude());
+        dto.setLongitude(property.getLongitude());
+        dto.setLocationPrecision(property.getLocationPrecision());
         dto.setAmenities(property.getAmenities());
         dto.setImageUrl(property.getImageUrl());
         return dto;
@@ -0,0 +1,106 @@
+package com.residentia.service;
+
+import com.residentia.exception.PaymentGatewayException;
+import com.residentia.exception.PaymentGatewayUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Razorpay's REST API over one shared JDK HttpClient.
+ *
+ * The Razorpay SDK fixes its timeouts at 60 seconds and rebuilds its static HTTP
+ * client in every RazorpayClient constructor, so the orders API is called directly:
+ * connections are pooled for the life of the application, connecting is bounded by
+ * connectTimeout and waiting for a response by readTimeout. Throttling (429) and
+ * server errors count as the gateway being unavailable; other 4xx are refusals.
+ */
+@Slf4j
+public class RazorpayHttpGateway implements PaymentGateway {
+
+    private static final URI ORDERS = URI.create("https://api.razorpay.com/v1/orders");
+
+    private final String keyId;
+    private final String keySecret;
+    private final String authorization;
+    private final Duration readTimeout;
+    private final HttpClient httpClient;
+
+    public RazorpayHttpGateway(String keyId, String keySecret, Duration connectTimeout, Duration readTimeout) {
+        this.keyId = keyId;
+        this.keySecret = keySecret;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+        this.readTimeout = readTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    @Override
+    public String createOrder(long amountPaise, String currency, String receipt) {
+        JSONObject body = new JSONObject();
+        body.put("amount", amountPaise);
+        body.put("currency", currency);
+        body.put("receipt", receipt);
+        HttpRequest request = HttpRequest.newBuilder(ORDERS)
+                .timeout(readTimeout)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpTimeoutException e) {
+            throw new PaymentGatewayUnavailableException("Payment gateway timed out", e);
+        } catch (IOException e) {
+            throw new PaymentGatewayUnavailableException("Payment gateway unreachable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayUnavailableException("Interrupted while calling the payment gateway", e);
+        }
+
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            try {
+                return new JSONObject(response.body()).getString("id");
+            } catch (JSONException e) {
+                throw new PaymentGatewayException("Unexpected order response from payment gateway", e);
+            }
+        }
+        if (status == 429 || status >= 500) {
+            throw new PaymentGatewayUnavailableException("Payment gateway returned " + status);
+        }
+        throw new PaymentGatewayException("Payment gateway rejected the order: " + describeError(response.body()));
+    }
+
+    @Override
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        return PaymentSignatures.matches(keySecret, PaymentSignatures.paymentPayload(orderId, paymentId), signature);
+    }
+
+    @Override
+    public String getKeyId() {
+        return keyId;
+    }
+
+    private static String describeError(String body) {
+        try {
+            return new JSONObject(body).getJSONObject("error").optString("description", body);
+        } catch (JSONException e) {
+            return body;
+        }
+    }
+}
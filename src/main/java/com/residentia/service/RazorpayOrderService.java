@@ -0,0 +1,105 @@
+package com.residentia.service;
+
+import com.residentia.entity.Booking;
+import com.residentia.exception.ResourceNotFoundException;
+import com.residentia.repository.BookingRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Payment gateway orders for booking payments.
+ *
+ * A booking keeps the order it was last given along with that order's amount. While
+ * the booking is unpaid and its amount has not changed, the same order is handed out
+ * again instead of creating another one at the gateway, so repeated clicks on the pay
+ * button cost no gateway round-trip. Concurrent requests for the same booking on this
+ * node share one lookup or creation.
+ */
+@Slf4j
+@Service
+public class RazorpayOrderService {
+
+    public static final String CURRENCY = "INR";
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Getter
+    @AllArgsConstructor
+    public static class OpenOrder {
+        private final String orderId;
+        private final long amountPaise;
+        private final Booking booking;
+        // False when an existing order was handed out again
+        private final boolean created;
+    }
+
+    private final Map<Long, CompletableFuture<OpenOrder>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The booking's open order, created at the gateway only when there is none for
+     * its current amount
+     *
+     * @throws IllegalStateException when the booking is already paid or has no amount
+     */
+    public OpenOrder openOrder(Long bookingId) {
+        CompletableFuture<OpenOrder> running = new CompletableFuture<>();
+        CompletableFuture<OpenOrder> existing = inFlight.putIfAbsent(bookingId, running);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            OpenOrder order = findOrCreate(bookingId);
+            running.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            running.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(bookingId, running);
+        }
+    }
+
+    private OpenOrder findOrCreate(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+        if ("PAID".equalsIgnoreCase(booking.getPaymentStatus())) {
+            throw new IllegalStateException("Booking " + bookingId + " is already paid");
+        }
+        if (booking.getAmount() == null || booking.getAmount() <= 0) {
+            throw new IllegalStateException("Booking " + bookingId + " has no amount to pay");
+        }
+        long amountPaise = Math.round(booking.getAmount() * 100);
+
+        if (booking.getRazorpayOrderId() != null
+                && "PENDING".equalsIgnoreCase(booking.getPaymentStatus())
+                && Long.valueOf(amountPaise).equals(booking.getRazorpayOrderAmount())) {
+            log.debug("Reusing Razorpay order {} for booking {}", booking.getRazorpayOrderId(), bookingId);
+            return new OpenOrder(booking.getRazorpayOrderId(), amountPaise, booking, false);
+        }
+
+        String orderId = paymentGateway.createOrder(amountPaise, CURRENCY, "booking_" + bookingId);
+
+        booking.setRazorpayOrderId(orderId);
+        booking.setRazorpayOrderAmount(amountPaise);
+        booking.setPaymentStatus("PENDING");
+        Booking saved = bookingRepository.save(booking);
+        log.info("Created Razorpay order: {} for booking: {}", orderId, bookingId);
+        return new OpenOrder(orderId, amountPaise, saved, true);
+    }
+}
@@ -0,0 +1,92 @@
+package com.residentia.service;
+
+import com.residentia.dto.ResourceVersion;
+import com.residentia.repository.BookingRepository;
+import com.residentia.repository.BookingVersionView;
+import com.residentia.repository.PropertyRepository;
+import com.residentia.repository.VersionView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators for conditional GETs on listings and bookings.
+ *
+ * Each version comes from one aggregate query over updated_at, so a request that
+ * ends in 304 never loads or serializes an entity. A null version means the
+ * resource has no usable validator (missing, or rows without updated_at) and the
+ * caller should answer normally.
+ */
+@Service
+public class ResourceVersionService {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    public ResourceVersion property(Long propertyId) {
+        return single("p", propertyRepository.findVersionById(propertyId));
+    }
+
+    public ResourceVersion ownerProperties(Long ownerId) {
+        return list("ps", propertyRepository.findVersionByOwnerId(ownerId));
+    }
+
+    public ResourceVersion booking(Long bookingId) {
+        return single("b", bookingRepository.findVersionById(bookingId));
+    }
+
+    public ResourceVersion ownerBookings(Long ownerId) {
+        return list("bs", bookingRepository.findVersionByOwnerId(ownerId));
+    }
+
+    public ResourceVersion propertyBookings(Long propertyId) {
+        return list("bs", bookingRepository.findVersionByPropertyId(propertyId));
+    }
+
+    public ResourceVersion clientBookings(String email) {
+        return list("bs", bookingRepository.findVersionByTenantEmail(email));
+    }
+
+    private static ResourceVersion single(String kind, VersionView view) {
+        if (view == null || view.getCount() == null || view.getCount() == 0) {
+            return null;
+        }
+        return list(kind, view);
+    }
+
+    private static ResourceVersion list(String kind, VersionView view) {
+        if (view == null) {
+            return null;
+        }
+        long count = view.getCount() != null ? view.getCount() : 0;
+        LocalDateTime lastModified = view.getLastModified();
+        if (count > 0 && lastModified == null) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder(kind).append('-').append(Long.toString(count, 36));
+        if (lastModified != null) {
+            tag.append('-').append(Long.toString(toMillis(lastModified), 36));
+        }
+        if (view instanceof BookingVersionView bookings && count > 0) {
+            LocalDateTime propertyLastModified = bookings.getPropertyLastModified();
+            if (propertyLastModified != null) {
+                tag.append('-').append(Long.toString(toMillis(propertyLastModified), 36));
+                if (propertyLastModified.isAfter(lastModified)) {
+                    lastModified = propertyLastModified;
+                }
+            }
+            tag.append('-').append(Long.toString(bookings.getCheckedOut() != null ? bookings.getCheckedOut() : 0, 36));
+        }
+        return new ResourceVersion("\"" + tag + "\"", lastModified != null ? toMillis(lastModified) : -1);
+    }
+
+    // updated_at is written with LocalDateTime.now(), i.e. in the server's zone
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
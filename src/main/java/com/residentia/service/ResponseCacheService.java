@@ -0,0 +1,148 @@
+package com.residentia.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Store behind @CachedResponse.
+ *
+ * A size-bounded Caffeine cache (W-TinyLFU eviction, so one-off searches do not push
+ * out the popular pages) with a TTL per entry. Concurrent misses on the same key are
+ * collapsed: the first caller loads, the others wait for its result.
+ *
+ * The LISTINGS region is flushed whenever the catalog changes. Being a ListingIndex
+ * ordered last, that happens after the catalog and every other index are up to date.
+ */
+@Slf4j
+@Service
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ResponseCacheService implements ListingIndex {
+
+    public static final String LISTINGS = "listings";
+
+    private static final class Entry {
+        private final ResponseEntity<?> response;
+        private final long ttlNanos;
+
+        Entry(ResponseEntity<?> response, long ttlNanos) {
+            this.response = response;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private final AsyncCache<String, Entry> cache;
+
+    // Bumped on invalidation, so loads that started earlier are not stored
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ResponseCacheService(@Value("${response-cache.max-entries:10000}") long maxEntries) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .buildAsync();
+    }
+
+    /**
+     * Cached response for key, or the loader's response (stored when cacheable).
+     * A caller that finds a load in flight blocks until it completes.
+     */
+    public ResponseEntity<?> get(String region, String key, long ttlSeconds,
+                                 Supplier<ResponseEntity<?>> loader) {
+        String regionKey = region + "|" + key;
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(regionKey, loading);
+        if (existing != null) {
+            try {
+                ResponseEntity<?> shared = existing.join().response;
+                if (shared != null) {
+                    return shared;
+                }
+            } catch (CompletionException e) {
+                // The load we waited on failed; try on our own
+            }
+            return loader.get();
+        }
+
+        long generation = generation(region).get();
+        ResponseEntity<?> response;
+        try {
+            response = loader.get();
+        } catch (RuntimeException e) {
+            cache.asMap().remove(regionKey, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        // Only plain 2xx bodies are kept and shared: a streamed body can be written
+        // once, and errors or 304s may depend on more than the key
+        boolean cacheable = response != null && response.getStatusCode().is2xxSuccessful()
+                && !(response.getBody() instanceof StreamingResponseBody);
+        if (!cacheable) {
+            cache.asMap().remove(regionKey, loading);
+        }
+        // Waiters on an uncacheable load run their own
+        loading.complete(new Entry(cacheable ? response : null, TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        if (cacheable && generation(region).get() != generation) {
+            cache.asMap().remove(regionKey, loading);
+        }
+        return response;
+    }
+
+    public void invalidate(String region) {
+        generation(region).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.startsWith(region + "|"));
+        log.debug("Response cache region {} invalidated", region);
+    }
+
+    @Override
+    public void rebuild(Collection<PropertyDTO> cards) {
+        invalidate(LISTINGS);
+    }
+
+    @Override
+    public void index(Property property, PropertyDTO card) {
+        invalidate(LISTINGS);
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        invalidate(LISTINGS);
+    }
+
+    private AtomicLong generation(String region) {
+        return generations.computeIfAbsent(region, k -> new AtomicLong());
+    }
+}
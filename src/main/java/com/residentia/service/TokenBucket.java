@@ -0,0 +1,59 @@
+package com.residentia.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter: tokens accrue at ratePerSecond up to burst, and each
+ * acquire takes one, waiting for it when the bucket is empty. Not thread-safe; meant
+ * for a single sending thread.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.clock = clock;
+        this.tokens = burst;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    /**
+     * Take a token if one is available
+     *
+     * @return 0 when a token was taken, otherwise nanoseconds until one will be
+     */
+    long tryAcquire() {
+        long now = clock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Take a token, waiting for one if needed
+     */
+    public void acquire() throws InterruptedException {
+        long wait;
+        while ((wait = tryAcquire()) > 0) {
+            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        }
+    }
+}
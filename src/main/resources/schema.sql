@@ -128,3 +128,105 @@ CREATE TABLE IF NOT EXISTS regular_users (
 INSERT INTO admins (name, email, mobile_number, password_hash, department, is_active) 
 VALUES ('System Admin', 'admin@residentia.com', '9999999999', '$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcg7b3XeKeUxWdeS86E36DRcx3a', 'Admin', TRUE)
 ON DUPLICATE KEY UPDATE email=email;
+
+-- ===== Listing search =====
+-- Composite search (/api/client/search) filters on city + status and seeks on (rent_amount, id)
+CREATE INDEX idx_city_status_rent ON pgs (city, status, rent_amount, id);
+CREATE INDEX idx_status_rent ON pgs (status, rent_amount, id);
+
+-- ===== Listing coordinates =====
+-- Resolved from map_link or the pincode centroid table; backfilled at startup
+ALTER TABLE pgs ADD COLUMN latitude DOUBLE NULL, ADD COLUMN longitude DOUBLE NULL;
+-- Where the coordinates came from; DISTRICT points are left out of radius search
+ALTER TABLE pgs ADD COLUMN location_precision VARCHAR(10) NULL;
+
+-- ===== Amenity mask =====
+-- One bit per AmenityDictionary entry; NULL rows are backfilled from amenities at startup
+ALTER TABLE pgs ADD COLUMN amenity_mask BIGINT NULL;
+
+-- ===== Booking validators =====
+-- updated_at backs the ETag/Last-Modified of booking reads; existing rows start at their creation time
+ALTER TABLE bookings ADD COLUMN updated_at DATETIME(6) NULL;
+UPDATE bookings SET updated_at = COALESCE(created_at, booking_date, NOW()) WHERE updated_at IS NULL;
+
+-- ===== Listing change log =====
+-- Append-only feed for /api/client/properties/changes; written in the listing's own transaction
+CREATE TABLE IF NOT EXISTS property_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    property_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    changed_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_property_changes_changed_at (changed_at)
+);
+
+-- ===== Booking occupancy =====
+-- Admission checks and the availability index read a listing's active stays that have not ended
+CREATE INDEX idx_bookings_pg_status_checkout ON bookings (pg_id, status, check_out_date);
+
+-- ===== Listing version =====
+-- Optimistic lock for Property; bed recounts increment it with their conditional update
+ALTER TABLE pgs ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- ===== Idempotency keys =====
+-- Stored outcomes of POSTs sent with an Idempotency-Key; status_code is NULL while the first request runs
+-- scope is the operation name and the SHA-256 hex of the principal
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    scope VARCHAR(191) NOT NULL,
+    idempotency_key VARCHAR(128) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INT NULL,
+    content_type VARCHAR(100) NULL,
+    response_body LONGTEXT NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_idempotency_scope_key (scope, idempotency_key),
+    INDEX idx_idempotency_keys_expires_at (expires_at)
+);
+
+-- ===== Razorpay order reuse =====
+-- Amount in paise of the booking's open Razorpay order; NULL orders are replaced on the next attempt
+ALTER TABLE bookings ADD COLUMN razorpay_order_amount BIGINT NULL;
+
+-- ===== Payment webhook inbox =====
+-- Verified gateway webhooks, appended by the webhook endpoint and drained in batches by PaymentWebhookService
+CREATE TABLE IF NOT EXISTS payment_webhook_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_id VARCHAR(64) NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    razorpay_order_id VARCHAR(64) NULL,
+    razorpay_payment_id VARCHAR(64) NULL,
+    payload LONGTEXT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    claim_token VARCHAR(36) NULL,
+    claimed_at DATETIME(6) NULL,
+    last_error VARCHAR(500) NULL,
+    received_at DATETIME(6) NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6) NULL,
+    UNIQUE KEY uk_payment_webhook_event_id (event_id),
+    INDEX idx_payment_webhook_status_id (status, id),
+    INDEX idx_payment_webhook_claim_token (claim_token)
+);
+-- Webhooks and payment verification find bookings by their gateway order
+CREATE INDEX idx_bookings_razorpay_order_id ON bookings (razorpay_order_id);
+
+-- ===== Outbox =====
+-- Side effects committed with the change that caused them and delivered afterwards by OutboxService
+CREATE TABLE IF NOT EXISTS outbox_messages (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claim_token VARCHAR(36) NULL,
+    claimed_at DATETIME(6) NULL,
+    last_error VARCHAR(500) NULL,
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6) NULL,
+    INDEX idx_outbox_status_next_attempt (status, next_attempt_at),
+    INDEX idx_outbox_claim_token (claim_token)
+);
@@ -0,0 +1,105 @@
+package com.residentia.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.residentia.dto.PropertyDTO;
+import com.residentia.service.ListingJsonCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering the /api/client/properties body: Jackson over the card list
+ * versus concatenating ListingJsonCache fragments.
+ *
+ * Run with the gc profiler to compare allocation per request:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.residentia.benchmark.CatalogSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogSerializationBenchmark {
+
+    @Param({ "100", "2000" })
+    private int listings;
+
+    private ObjectMapper objectMapper;
+    private ListingJsonCache cache;
+    private List<PropertyDTO> cards;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        cache = new ListingJsonCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+
+        cards = new ArrayList<>();
+        for (long id = 1; id <= listings; id++) {
+            cards.add(card(id));
+        }
+        cache.rebuild(cards);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws Exception {
+        return objectMapper.writeValueAsBytes(cards);
+    }
+
+    @Benchmark
+    public byte[] fragments() {
+        return cache.toJsonArray(cards);
+    }
+
+    private static PropertyDTO card(long id) {
+        PropertyDTO card = new PropertyDTO();
+        card.setPropertyId(id);
+        card.setOwnerId(id % 50 + 1);
+        card.setPropertyName("Sunrise Residency " + id);
+        card.setAddress(id + ", 5th Cross, Koramangala 4th Block, Bangalore");
+        card.setCity("Bangalore");
+        card.setState("Karnataka");
+        card.setPincode("560034");
+        card.setRentAmount(6000.0 + id % 40 * 250);
+        card.setSharingType(id % 3 == 0 ? "Single" : "Double");
+        card.setMaxCapacity(20);
+        card.setAvailableBeds((int) (id % 7));
+        card.setFoodIncluded(id % 2 == 0);
+        card.setStatus("ACTIVE");
+        card.setMapLink("https://maps.google.com/?q=12.93" + id % 10 + ",77.62" + id % 10);
+        card.setLatitude(12.93 + id % 10 / 1000.0);
+        card.setLongitude(77.62 + id % 10 / 1000.0);
+        card.setImageUrl("https://res.cloudinary.com/residentia/image/upload/v1/pgs/" + id + "/cover.jpg");
+        card.setReviews((int) (id % 30));
+        card.setAmenities("WiFi, AC, Laundry, Power Backup, CCTV");
+        card.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        return card;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogSerializationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
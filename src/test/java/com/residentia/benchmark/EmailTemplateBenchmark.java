@@ -0,0 +1,171 @@
+package com.residentia.benchmark;
+
+import com.residentia.entity.Booking;
+import com.residentia.entity.Property;
+import com.residentia.service.EmailTemplateEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the payment confirmation email body: the string concatenation
+ * EmailService used before templates versus the compiled payment-confirmation template.
+ *
+ * Run with the gc profiler to compare allocation per email:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.residentia.benchmark.EmailTemplateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
+    private static final String PAYMENT_ID = "pay_NfY2kq8cX1b7Zt";
+
+    private EmailTemplateEngine engine;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        engine = new EmailTemplateEngine("en");
+
+        Property property = new Property();
+        property.setPropertyName("Sunrise Residency");
+        booking = new Booking();
+        booking.setId(4821L);
+        booking.setProperty(property);
+        booking.setTenantName("Ananya Sharma");
+        booking.setTenantEmail("ananya@example.com");
+        booking.setAmount(7250.0);
+        booking.setCheckInDate(LocalDateTime.of(2026, 7, 1, 12, 0));
+    }
+
+    @Benchmark
+    public String concatenation() {
+        return "Payment Confirmation - Residentia PG Booking #" + booking.getId() + concatenated(booking, PAYMENT_ID);
+    }
+
+    @Benchmark
+    public EmailTemplateEngine.RenderedEmail template() {
+        Map<String, Object> model = new HashMap<>();
+        model.put("bookingId", booking.getId());
+        model.put("clientName", booking.getTenantName());
+        model.put("propertyName", booking.getProperty().getPropertyName());
+        model.put("amount", booking.getAmount());
+        model.put("checkInDate", booking.getCheckInDate());
+        model.put("billDate", LocalDateTime.now());
+        model.put("paymentId", PAYMENT_ID);
+        return engine.render(EmailTemplateEngine.PAYMENT_CONFIRMATION, Locale.ENGLISH, model);
+    }
+
+    // EmailService.buildEmailContent before the template engine
+    private static String concatenated(Booking booking, String razorpayPaymentId) {
+        String propertyName = booking.getProperty() != null ? booking.getProperty().getPropertyName() : "N/A";
+        String clientName = booking.getTenantName();
+        Double amount = booking.getAmount();
+        LocalDateTime checkInDate = booking.getCheckInDate();
+        LocalDateTime billDate = LocalDateTime.now();
+
+        return "<!DOCTYPE html>" +
+                "<html>" +
+                "<head>" +
+                "    <style>" +
+                "        body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }" +
+                "        .container { max-width: 600px; margin: 0 auto; padding: 20px; background-color: #f9f9f9; }" +
+                "        .header { background-color: #4CAF50; color: white; padding: 20px; text-align: center; }" +
+                "        .content { background-color: white; padding: 30px; margin-top: 20px; border-radius: 5px; }" +
+                "        .detail-row { margin: 15px 0; padding: 10px; background-color: #f5f5f5; border-left: 4px solid #4CAF50; }" +
+                "        .label { font-weight: bold; color: #555; }" +
+                "        .value { color: #222; font-size: 16px; }" +
+                "        .footer { text-align: center; margin-top: 30px; padding: 20px; color: #777; font-size: 12px; }" +
+                "        .amount { font-size: 24px; color: #4CAF50; font-weight: bold; }" +
+                "        .success-icon { font-size: 48px; text-align: center; color: #4CAF50; margin: 20px 0; }" +
+                "    </style>" +
+                "</head>" +
+                "<body>" +
+                "    <div class='container'>" +
+                "        <div class='header'>" +
+                "            <h1>Payment Successful!</h1>" +
+                "        </div>" +
+                "        <div class='content'>" +
+                "            <div class='success-icon'>✓</div>" +
+                "            <p>Dear <strong>" + clientName + "</strong>,</p>" +
+                "            <p>Your payment has been successfully processed. Here are the details of your booking:</p>" +
+                "            " +
+                "            <div class='detail-row'>" +
+                "                <div class='label'>Booking ID:</div>" +
+                "                <div class='value'>#" + booking.getId() + "</div>" +
+                "            </div>" +
+                "            " +
+                "            <div class='detail-row'>" +
+                "                <div class='label'>Client Name:</div>" +
+                "                <div class='value'>" + clientName + "</div>" +
+                "            </div>" +
+                "            " +
+                "            <div class='detail-row'>" +
+                "                <div class='label'>PG Name:</div>" +
+                "                <div class='value'>" + propertyName + "</div>" +
+                "            </div>" +
+                "            " +
+                "            <div class='detail-row'>" +
+                "                <div class='label'>Amount Paid:</div>" +
+                "                <div class='amount'>₹ " + String.format("%.2f", amount) + "</div>" +
+                "            </div>" +
+                "            " +
+                "            <div class='detail-row'>" +
+                "                <div class='label'>Check-in Date:</div>" +
+                "                <div class='value'>" + checkInDate.format(DATETIME_FORMATTER) + "</div>" +
+                "            </div>" +
+                "            " +
+                "            <div class='detail-row'>" +
+                "                <div class='label'>Bill Issued Date:</div>" +
+                "                <div class='value'>" + billDate.format(DATETIME_FORMATTER) + "</div>" +
+                "            </div>" +
+                "            " +
+                "            <div class='detail-row'>" +
+                "                <div class='label'>Payment ID:</div>" +
+                "                <div class='value'>" + razorpayPaymentId + "</div>" +
+                "            </div>" +
+                "            " +
+                "            <p style='margin-top: 30px;'>Thank you for choosing Residentia. We look forward to providing you with excellent accommodation.</p>" +
+                "            " +
+                "            <p><strong>Note:</strong> Please keep this email for your records.</p>" +
+                "        </div>" +
+                "        " +
+                "        <div class='footer'>" +
+                "            <p>&copy; 2026 Residentia PG Management System</p>" +
+                "            <p>For queries, contact us at: hspatil222002@gmail.com</p>" +
+                "        </div>" +
+                "    </div>" +
+                "</body>" +
+                "</html>";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailTemplateBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
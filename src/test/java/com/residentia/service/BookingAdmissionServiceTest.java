@@ -0,0 +1,236 @@
+package com.residentia.service;
+
+import com.residentia.dto.BookingDTO;
+import com.residentia.entity.Booking;
+import com.residentia.entity.Property;
+import com.residentia.exception.BookingCapacityException;
+import com.residentia.exception.ResourceNotFoundException;
+import com.residentia.repository.BookingIntervalView;
+import com.residentia.repository.BookingRepository;
+import com.residentia.repository.PropertyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookingAdmissionServiceTest {
+
+    private static final LocalDate JUNE_1 = LocalDate.of(2030, 6, 1);
+    private static final long PROPERTY_ID = 1L;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final PropertyRepository propertyRepository = mock(PropertyRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final BedInventoryService bedInventoryService = mock(BedInventoryService.class);
+
+    private final BookingAdmissionService admission = new BookingAdmissionService();
+    private final BookingService bookingService = new BookingService();
+
+    // Active stays of the listing, as the interval query returns them
+    private final List<BookingIntervalView> stays = new ArrayList<>();
+    private Property property;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(admission, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(admission, "propertyRepository", propertyRepository);
+        ReflectionTestUtils.setField(admission, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(bookingService, "propertyRepository", propertyRepository);
+        ReflectionTestUtils.setField(bookingService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(bookingService, "bookingAdmissionService", admission);
+        ReflectionTestUtils.setField(bookingService, "bedInventoryService", bedInventoryService);
+        ReflectionTestUtils.setField(bookingService, "outboxService", mock(OutboxService.class));
+
+        property = new Property();
+        property.setId(PROPERTY_ID);
+        property.setMaxCapacity(2);
+        when(propertyRepository.findById(PROPERTY_ID)).thenReturn(Optional.of(property));
+        when(propertyRepository.lockForAdmission(PROPERTY_ID)).thenReturn(1);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(bookingRepository.findIntervalsByPropertyId(eq(PROPERTY_ID), any(), any())).thenReturn(stays);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void withAdmissionLock_runsInItsOwnTransactionOnTheLockedRow() {
+        assertEquals("done", admission.withAdmissionLock(PROPERTY_ID, () -> "done"));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        verify(propertyRepository).lockForAdmission(PROPERTY_ID);
+
+        when(propertyRepository.lockForAdmission(2L)).thenReturn(0);
+        assertThrows(ResourceNotFoundException.class, () -> admission.withAdmissionLock(2L, () -> "never"));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    public void hasRoom_countsOtherStaysNightByNight() {
+        stays.add(stay(10L, JUNE_1, JUNE_1.plusDays(10)));
+        stays.add(stay(11L, JUNE_1.plusDays(5), JUNE_1.plusDays(15)));
+
+        // Both beds are taken on nights 5 to 9
+        assertFalse(hasRoom(JUNE_1.plusDays(8), JUNE_1.plusDays(12), null));
+        assertTrue(hasRoom(JUNE_1.plusDays(10), JUNE_1.plusDays(20), null));
+        assertTrue(hasRoom(JUNE_1.minusDays(5), JUNE_1.plusDays(5), null));
+        // Without a check-in there is nothing to check
+        assertTrue(admission.hasRoom(property, null, null, null));
+    }
+
+    @Test
+    public void hasRoom_leavesOutTheBookingBeingChanged() {
+        stays.add(stay(10L, JUNE_1, JUNE_1.plusDays(10)));
+        stays.add(stay(11L, JUNE_1, JUNE_1.plusDays(10)));
+
+        assertFalse(hasRoom(JUNE_1.plusDays(2), JUNE_1.plusDays(4), null));
+        assertTrue(hasRoom(JUNE_1.plusDays(2), JUNE_1.plusDays(4), 11L));
+    }
+
+    @Test
+    public void hasRoom_treatsStaysWithoutCheckOutAsOpenEnded() {
+        property.setMaxCapacity(1);
+        stays.add(stay(10L, JUNE_1.plusDays(300), JUNE_1.plusDays(310)));
+
+        // A stay with no check-out runs into every later booking
+        assertFalse(hasRoom(JUNE_1, null, null));
+        assertTrue(hasRoom(JUNE_1, JUNE_1.plusDays(300), null));
+
+        stays.add(stay(11L, JUNE_1, null));
+        assertFalse(hasRoom(JUNE_1.plusDays(1000), JUNE_1.plusDays(1001), null));
+    }
+
+    @Test
+    public void createBooking_rejectsBedHoldingBookingsWhenFull() {
+        property.setMaxCapacity(1);
+        stays.add(stay(10L, JUNE_1, JUNE_1.plusDays(30)));
+
+        assertThrows(BookingCapacityException.class,
+                () -> bookingService.createBooking(PROPERTY_ID, request("CONFIRMED", JUNE_1.plusDays(3), JUNE_1.plusDays(6))));
+        verify(bookingRepository, never()).save(any());
+
+        Booking later = bookingService.createBooking(PROPERTY_ID,
+                request("CONFIRMED", JUNE_1.plusDays(30), JUNE_1.plusDays(40)));
+        assertEquals("CONFIRMED", later.getStatus());
+        verify(bedInventoryService).recount(PROPERTY_ID);
+    }
+
+    @Test
+    public void createBooking_waitlistsRequestsWhenFull() {
+        property.setMaxCapacity(1);
+        stays.add(stay(10L, JUNE_1, JUNE_1.plusDays(30)));
+
+        Booking waitlisted = bookingService.createBooking(PROPERTY_ID,
+                request(null, JUNE_1.plusDays(3), JUNE_1.plusDays(6)));
+        assertEquals(BookingService.WAITLISTED, waitlisted.getStatus());
+
+        Booking pending = bookingService.createBooking(PROPERTY_ID,
+                request(null, JUNE_1.plusDays(30), JUNE_1.plusDays(40)));
+        assertEquals("PENDING", pending.getStatus());
+        verify(bedInventoryService, never()).recount(anyLong());
+    }
+
+    @Test
+    public void updateBooking_checksNewDatesWithoutCountingItself() {
+        property.setMaxCapacity(1);
+        Booking booking = booking(10L, "CONFIRMED", JUNE_1, JUNE_1.plusDays(10));
+        stays.add(stay(10L, JUNE_1, JUNE_1.plusDays(10)));
+        stays.add(stay(11L, JUNE_1.plusDays(20), JUNE_1.plusDays(30)));
+        when(bookingRepository.findById(10L)).thenReturn(Optional.of(booking));
+
+        BookingDTO extend = new BookingDTO();
+        extend.setCheckOutDate(JUNE_1.plusDays(15).atStartOfDay());
+        assertEquals(JUNE_1.plusDays(15).atStartOfDay(), bookingService.updateBooking(10L, extend).getCheckOutDate());
+
+        BookingDTO overlap = new BookingDTO();
+        overlap.setCheckOutDate(JUNE_1.plusDays(25).atStartOfDay());
+        assertThrows(BookingCapacityException.class, () -> bookingService.updateBooking(10L, overlap));
+    }
+
+    @Test
+    public void restoreBooking_rejectsWhenTheStayNoLongerFits() {
+        property.setMaxCapacity(1);
+        Booking cancelled = booking(12L, "CANCELLED", JUNE_1.plusDays(2), JUNE_1.plusDays(4));
+        when(bookingRepository.findById(12L)).thenReturn(Optional.of(cancelled));
+        stays.add(stay(10L, JUNE_1, JUNE_1.plusDays(10)));
+
+        assertThrows(BookingCapacityException.class, () -> bookingService.restoreBooking(12L));
+        assertEquals("CANCELLED", cancelled.getStatus());
+
+        stays.clear();
+        assertEquals("APPROVED", bookingService.restoreBooking(12L).getStatus());
+    }
+
+    private boolean hasRoom(LocalDate checkIn, LocalDate checkOut, Long excludeBookingId) {
+        return admission.hasRoom(property, checkIn.atStartOfDay(),
+                checkOut != null ? checkOut.atStartOfDay() : null, excludeBookingId);
+    }
+
+    private Booking booking(Long id, String status, LocalDate checkIn, LocalDate checkOut) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setProperty(property);
+        booking.setStatus(status);
+        booking.setCheckInDate(checkIn.atStartOfDay());
+        booking.setCheckOutDate(checkOut.atStartOfDay());
+        return booking;
+    }
+
+    private static BookingDTO request(String status, LocalDate checkIn, LocalDate checkOut) {
+        BookingDTO dto = new BookingDTO();
+        dto.setTenantName("Ravi");
+        dto.setTenantEmail("ravi@example.com");
+        dto.setStatus(status);
+        dto.setAmount(6500.0);
+        dto.setCheckInDate(checkIn.atStartOfDay());
+        dto.setCheckOutDate(checkOut.atStartOfDay());
+        return dto;
+    }
+
+    private static BookingIntervalView stay(Long id, LocalDate checkIn, LocalDate checkOut) {
+        return new BookingIntervalView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getPropertyId() {
+                return PROPERTY_ID;
+            }
+
+            @Override
+            public LocalDateTime getCheckInDate() {
+                return checkIn.atStartOfDay();
+            }
+
+            @Override
+            public LocalDateTime getCheckOutDate() {
+                return checkOut != null ? checkOut.atStartOfDay() : null;
+            }
+        };
+    }
+}
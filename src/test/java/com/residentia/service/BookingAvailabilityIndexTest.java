@@ -0,0 +1,71 @@
+package com.residentia.service;
+
+import com.residentia.repository.BookingIntervalView;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookingAvailabilityIndexTest {
+
+    private static final LocalDate JUNE_1 = LocalDate.of(2030, 6, 1);
+
+    @Test
+    public void maxBetween_countsOverlappingStays() {
+        BookingAvailabilityIndex.Occupancy occupancy = BookingAvailabilityIndex.Occupancy.of(List.of(
+                stay(JUNE_1, JUNE_1.plusDays(10)),
+                stay(JUNE_1.plusDays(5), JUNE_1.plusDays(15)),
+                stay(JUNE_1.plusDays(20), JUNE_1.plusDays(25))));
+
+        assertEquals(2, max(occupancy, JUNE_1, JUNE_1.plusDays(30)));
+        assertEquals(1, max(occupancy, JUNE_1, JUNE_1.plusDays(5)));
+        // Check-out day is free again
+        assertEquals(0, max(occupancy, JUNE_1.plusDays(15), JUNE_1.plusDays(20)));
+        assertEquals(1, max(occupancy, JUNE_1.plusDays(14), JUNE_1.plusDays(16)));
+        assertEquals(0, max(occupancy, JUNE_1.minusDays(10), JUNE_1));
+        assertEquals(0, max(occupancy, JUNE_1.plusDays(25), JUNE_1.plusDays(40)));
+    }
+
+    @Test
+    public void maxBetween_keepsOpenEndedStays() {
+        BookingAvailabilityIndex.Occupancy occupancy = BookingAvailabilityIndex.Occupancy.of(List.of(
+                stay(JUNE_1, null),
+                stay(JUNE_1.plusDays(3), JUNE_1.plusDays(3))));
+
+        assertEquals(1, max(occupancy, JUNE_1.plusDays(100), JUNE_1.plusDays(101)));
+        // A same-day stay holds its bed for one night
+        assertEquals(2, max(occupancy, JUNE_1.plusDays(3), JUNE_1.plusDays(4)));
+        assertEquals(1, max(occupancy, JUNE_1.plusDays(4), JUNE_1.plusDays(5)));
+    }
+
+    private static int max(BookingAvailabilityIndex.Occupancy occupancy, LocalDate from, LocalDate to) {
+        return occupancy.maxBetween(from.toEpochDay(), to.toEpochDay());
+    }
+
+    private static BookingIntervalView stay(LocalDate checkIn, LocalDate checkOut) {
+        return new BookingIntervalView() {
+            @Override
+            public Long getId() {
+                return null;
+            }
+
+            @Override
+            public Long getPropertyId() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDateTime getCheckInDate() {
+                return checkIn.atTime(12, 0);
+            }
+
+            @Override
+            public LocalDateTime getCheckOutDate() {
+                return checkOut != null ? checkOut.atTime(11, 0) : null;
+            }
+        };
+    }
+}
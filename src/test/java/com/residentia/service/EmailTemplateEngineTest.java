@@ -0,0 +1,98 @@
+package com.residentia.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmailTemplateEngineTest {
+
+    @Test
+    public void render_escapesTextSlotsInBodiesOnly() {
+        Map<String, Object> model = Map.of("name", "<b>Tom & \"Jerry\"</b>");
+
+        assertEquals("<p>&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;</p>",
+                render(EmailTemplate.compile("body", "<p>{{name}}</p>", Locale.ENGLISH, true), model));
+        assertEquals("Hi <b>Tom & \"Jerry\"</b>",
+                render(EmailTemplate.compile("subject", "Hi {{ name }}", Locale.ENGLISH, false), model));
+    }
+
+    @Test
+    public void render_formatsTypedSlots() {
+        EmailTemplate template = EmailTemplate.compile("typed",
+                "{{amount:money}}|{{small:money}}|{{count:number}}|{{at:datetime}}|{{at:date}}", Locale.ENGLISH, true);
+        Map<String, Object> model = Map.of(
+                "amount", 1234567.5,
+                "small", 999.999,
+                "count", 42L,
+                "at", LocalDateTime.of(2026, 3, 5, 14, 30));
+
+        assertEquals("12,34,567.50|1,000.00|42|05 Mar 2026, 02:30 PM|05 Mar 2026", render(template, model));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> render(template, Map.of("amount", "lots", "small", 1, "count", 1, "at", LocalDateTime.now())));
+    }
+
+    @Test
+    public void render_skipsSectionsForNullValuesAndRejectsMissingOnes() {
+        EmailTemplate template = EmailTemplate.compile("sections",
+                "a{{#checkIn}}[{{checkIn:date}}]{{/checkIn}}b", Locale.ENGLISH, true);
+        Map<String, Object> model = new HashMap<>();
+        model.put("checkIn", null);
+
+        assertEquals("ab", render(template, model));
+        assertThrows(IllegalArgumentException.class, () -> render(template, Map.of()));
+    }
+
+    @Test
+    public void compile_reportsMalformedTemplatesWithTheirLine() {
+        IllegalArgumentException unclosed = assertThrows(IllegalArgumentException.class,
+                () -> EmailTemplate.compile("broken", "line one\n<p>{{name</p>", Locale.ENGLISH, true));
+        assertTrue(unclosed.getMessage().contains("line 2"), unclosed.getMessage());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> EmailTemplate.compile("broken", "{{#a}}text", Locale.ENGLISH, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> EmailTemplate.compile("broken", "{{amount:euros}}", Locale.ENGLISH, true));
+    }
+
+    @Test
+    public void engine_rendersBundledTemplatesPerLocale() {
+        EmailTemplateEngine engine = new EmailTemplateEngine("en");
+        Map<String, Object> model = new HashMap<>();
+        model.put("bookingId", 17L);
+        model.put("ownerName", "Asha");
+        model.put("tenantName", "Ravi <script>");
+        model.put("propertyName", "Sunrise PG");
+        model.put("amount", 6500.0);
+        model.put("checkInDate", null);
+
+        EmailTemplateEngine.RenderedEmail english = engine.render(
+                EmailTemplateEngine.OWNER_PAYMENT_NOTIFICATION, Locale.ENGLISH, model);
+        assertEquals("New paid booking #17 - Sunrise PG", english.getSubject());
+        assertTrue(english.getHtml().contains("Ravi &lt;script&gt;"));
+        assertTrue(english.getHtml().contains("₹ 6,500.00"));
+        assertFalse(english.getHtml().contains("Check-in"));
+
+        EmailTemplateEngine.RenderedEmail hindi = engine.render(
+                EmailTemplateEngine.OWNER_PAYMENT_NOTIFICATION, Locale.forLanguageTag("hi"), model);
+        assertTrue(hindi.getSubject().startsWith("नई भुगतान की गई बुकिंग #17"));
+
+        // No French version; falls back to the default locale
+        assertEquals(english.getHtml(), engine.render(
+                EmailTemplateEngine.OWNER_PAYMENT_NOTIFICATION, Locale.FRENCH, model).getHtml());
+    }
+
+    private static String render(EmailTemplate template, Map<String, ?> model) {
+        StringBuilder out = new StringBuilder();
+        template.render(model, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeoLocationServiceTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void parseMapLink_readsEachLinkForm() {
+        assertArrayEquals(new double[] { 12.9352, 77.6245 }, GeoLocationService.parseMapLink(
+                "https://www.google.com/maps/place/Sunrise+PG/@12.9300,77.6200,17z/data=!3m1!4b1!4m6!3m5!1s0x0:0x0!8m2!3d12.9352!4d77.6245"),
+                DELTA);
+        assertArrayEquals(new double[] { 28.6139, 77.209 }, GeoLocationService.parseMapLink(
+                "https://maps.google.com/?q=28.6139,77.2090"), DELTA);
+        assertArrayEquals(new double[] { 19.076, 72.8777 }, GeoLocationService.parseMapLink(
+                "https://www.google.com/maps/search/?api=1&query=19.0760%2C72.8777"), DELTA);
+        assertArrayEquals(new double[] { 18.5204, 73.8567 }, GeoLocationService.parseMapLink(
+                "https://www.google.com/maps/@18.5204,73.8567,15z"), DELTA);
+        assertArrayEquals(new double[] { 17.385, 78.4867 }, GeoLocationService.parseMapLink(
+                "geo:17.3850,78.4867?z=16"), DELTA);
+        assertArrayEquals(new double[] { -33.8688, 151.2093 }, GeoLocationService.parseMapLink(
+                "https://maps.google.com/?ll=-33.8688,151.2093"), DELTA);
+    }
+
+    @Test
+    public void parseMapLink_ignoresLinksWithoutUsableCoordinates() {
+        assertNull(GeoLocationService.parseMapLink(null));
+        assertNull(GeoLocationService.parseMapLink("  "));
+        assertNull(GeoLocationService.parseMapLink("https://maps.app.goo.gl/AbCdEf123"));
+        assertNull(GeoLocationService.parseMapLink("https://maps.google.com/?q=0,0"));
+        assertNull(GeoLocationService.parseMapLink("https://maps.google.com/?q=95.0,77.0"));
+    }
+
+    @Test
+    public void resolve_recordsWhereTheCoordinatesCameFrom() {
+        GeoLocationService service = new GeoLocationService();
+
+        GeoLocationService.Location pinned = service.resolve("https://maps.google.com/?q=12.9352,77.6245", "560034");
+        assertEquals(GeoLocationService.MAP_LINK, pinned.getPrecision());
+        assertEquals(12.9352, pinned.getLatitude(), DELTA);
+
+        // The bundled table only has sorting-district prefixes
+        GeoLocationService.Location district = service.resolve("https://maps.app.goo.gl/AbCdEf123", "110017");
+        assertEquals(GeoLocationService.DISTRICT, district.getPrecision());
+        assertEquals(28.6139, district.getLatitude(), DELTA);
+
+        assertNull(service.resolve(null, "999999"));
+        assertNull(service.resolve(null, "11001"));
+
+        Property property = new Property();
+        property.setPincode("110 017");
+        service.locate(property);
+        assertEquals(GeoLocationService.DISTRICT, property.getLocationPrecision());
+    }
+
+    @Test
+    public void districtCentres_areLeftOutOfRadiusSearch() {
+        assertTrue(ListingGeoIndex.searchable(card(GeoLocationService.MAP_LINK)));
+        assertTrue(ListingGeoIndex.searchable(card(GeoLocationService.PINCODE)));
+        assertFalse(ListingGeoIndex.searchable(card(GeoLocationService.DISTRICT)));
+
+        ListingGeoIndex index = new ListingGeoIndex();
+        PropertyDTO exact = card(GeoLocationService.MAP_LINK);
+        exact.setPropertyId(1L);
+        PropertyDTO approximate = card(GeoLocationService.DISTRICT);
+        approximate.setPropertyId(2L);
+        index.rebuild(List.of(exact, approximate));
+
+        assertEquals(1, index.findWithin(28.6139, 77.209, 3, id -> true).size());
+    }
+
+    private static PropertyDTO card(String precision) {
+        PropertyDTO card = new PropertyDTO();
+        card.setLatitude(28.6139);
+        card.setLongitude(77.209);
+        card.setLocationPrecision(precision);
+        return card;
+    }
+}
@@ -0,0 +1,96 @@
+package com.residentia.service;
+
+import com.residentia.exception.PaymentGatewayException;
+import com.residentia.exception.PaymentGatewayUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GuardedPaymentGatewayTest {
+
+    @Test
+    public void breaker_opensAfterConsecutiveFailuresAndTriesOnceAfterCooldown() {
+        AtomicLong now = new AtomicLong();
+        GatewayCircuitBreaker breaker = new GatewayCircuitBreaker(3, Duration.ofSeconds(10), now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertEquals(GatewayCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+        // Only one trial call while half-open
+        assertFalse(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(GatewayCircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void slowGateway_timesOutThenFailsFast() {
+        FakePaymentGateway fake = new FakePaymentGateway("key", "secret", Duration.ofSeconds(5), Duration.ZERO, 0);
+        try (GuardedPaymentGateway gateway = new GuardedPaymentGateway(fake, 2, 2, Duration.ofMillis(50),
+                new GatewayCircuitBreaker(2, Duration.ofMinutes(1)))) {
+            assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.createOrder(100, "INR", "r1"));
+            assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.createOrder(100, "INR", "r2"));
+            assertEquals(GatewayCircuitBreaker.State.OPEN, gateway.getCircuitState());
+
+            fake.setLatency(Duration.ZERO);
+            long start = System.nanoTime();
+            assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.createOrder(100, "INR", "r3"));
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(50).toNanos());
+        }
+    }
+
+    @Test
+    public void refusals_doNotOpenTheBreaker() {
+        PaymentGateway refusing = new PaymentGateway() {
+            @Override
+            public String createOrder(long amountPaise, String currency, String receipt) {
+                throw new PaymentGatewayException("amount too low");
+            }
+
+            @Override
+            public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+                return false;
+            }
+
+            @Override
+            public String getKeyId() {
+                return "key";
+            }
+        };
+        try (GuardedPaymentGateway gateway = new GuardedPaymentGateway(refusing, 1, 1, Duration.ofSeconds(1),
+                new GatewayCircuitBreaker(1, Duration.ofMinutes(1)))) {
+            PaymentGatewayException e = assertThrows(PaymentGatewayException.class,
+                    () -> gateway.createOrder(1, "INR", "r1"));
+            assertFalse(e instanceof PaymentGatewayUnavailableException);
+            assertEquals(GatewayCircuitBreaker.State.CLOSED, gateway.getCircuitState());
+        }
+    }
+
+    @Test
+    public void fakeGateway_signsLikeRazorpay() {
+        FakePaymentGateway fake = new FakePaymentGateway("key", "secret", Duration.ZERO, Duration.ZERO, 0);
+        String orderId = fake.createOrder(50000, "INR", "booking_1");
+
+        assertTrue(fake.verifyPaymentSignature(orderId, "pay_1", fake.sign(orderId, "pay_1")));
+        assertFalse(fake.verifyPaymentSignature(orderId, "pay_2", fake.sign(orderId, "pay_1")));
+        assertFalse(fake.verifyPaymentSignature(orderId, "pay_1", null));
+        assertEquals(PaymentSignatures.sign("secret", orderId + "|pay_1"), fake.sign(orderId, "pay_1"));
+    }
+}
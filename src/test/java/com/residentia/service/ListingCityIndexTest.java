@@ -0,0 +1,139 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.entity.Property;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListingCityIndexTest {
+
+    private final ListingCityIndex index = new ListingCityIndex();
+
+    @Test
+    public void correct_fixesTyposWithinTheLengthBound() {
+        index.rebuild(List.of(
+                card(1L, "Bangalore", "Karnataka"),
+                card(2L, "Mumbai", "Maharashtra"),
+                card(3L, "Pune", "Maharashtra"),
+                card(4L, "Hyderabad", "Telangana")));
+
+        assertEquals("Bangalore", index.correct("Bangalor"));
+        assertEquals("Mumbai", index.correct("mumbaai"));
+        assertEquals("Hyderabad", index.correct("Hydrabad"));
+        assertEquals("Pune", index.correct("Pume"));
+        // Short names tolerate one edit only
+        assertNull(index.correct("Pnue"));
+        assertNull(index.correct("Chennai"));
+        assertNull(index.correct("   "));
+    }
+
+    @Test
+    public void correct_leavesKnownNamesAndStatesAlone() {
+        index.rebuild(List.of(
+                card(1L, "Navi Mumbai", "Maharashtra"),
+                card(2L, "Bengalūru", "Karnataka")));
+
+        // Case alone never needs a correction
+        assertNull(index.correct("navi mumbai"));
+        assertNull(index.correct("NAVI MUMBAI"));
+        // Punctuation and accents are corrected to the canonical name
+        assertEquals("Navi Mumbai", index.correct("navi-mumbai"));
+        assertEquals("Bengalūru", index.correct("bengaluru"));
+        // A state, spelled right or wrong, is not turned into a city
+        assertNull(index.correct("Karnataka"));
+        assertNull(index.correct("Karnatka"));
+    }
+
+    @Test
+    public void index_addsAndDropsNamesAsListingsChange() {
+        index.rebuild(List.of(
+                card(1L, "Pune", "Maharashtra"),
+                card(2L, "Pune", "Maharashtra")));
+
+        Property nagpur = new Property();
+        nagpur.setId(3L);
+        index.index(nagpur, card(3L, "Nagpur", "Maharashtra"));
+        assertEquals("Nagpur", index.correct("Nagpr"));
+
+        index.remove(3L);
+        assertNull(index.correct("Nagpr"));
+
+        // Pune stays while one listing still names it
+        index.remove(1L);
+        assertEquals("Pune", index.correct("Pume"));
+        Property moved = new Property();
+        moved.setId(2L);
+        index.index(moved, card(2L, "Pimpri", "Maharashtra"));
+        assertNull(index.correct("Pume"));
+        assertEquals("Pimpri", index.correct("Pimpry"));
+    }
+
+    @Test
+    public void correct_findsTheNearestCityLikeAFullScan() {
+        Random random = new Random(42);
+        List<PropertyDTO> cards = new ArrayList<>();
+        List<String> cities = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            String city = randomName(random);
+            cities.add(city);
+            cards.add(card(id, city, null));
+        }
+        index.rebuild(cards);
+
+        for (int i = 0; i < 500; i++) {
+            String query = mutate(cities.get(random.nextInt(cities.size())), random);
+            int best = Integer.MAX_VALUE;
+            for (String city : cities) {
+                best = Math.min(best, ListingCityIndex.levenshtein(query, city));
+            }
+            String corrected = index.correct(query);
+            int maxDistance = query.length() <= 4 ? 1 : query.length() <= 8 ? 2 : 3;
+            if (best == 0) {
+                assertNull(corrected, query);
+            } else if (best > maxDistance) {
+                assertNull(corrected, query);
+            } else {
+                assertTrue(corrected != null && ListingCityIndex.levenshtein(query, corrected) == best,
+                        query + " -> " + corrected + ", nearest at " + best);
+            }
+        }
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = 4 + random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(8)));
+        }
+        return name.toString();
+    }
+
+    private static String mutate(String name, Random random) {
+        StringBuilder mutated = new StringBuilder(name);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits && mutated.length() > 1; i++) {
+            int at = random.nextInt(mutated.length());
+            switch (random.nextInt(3)) {
+                case 0 -> mutated.setCharAt(at, (char) ('a' + random.nextInt(8)));
+                case 1 -> mutated.deleteCharAt(at);
+                default -> mutated.insert(at, (char) ('a' + random.nextInt(8)));
+            }
+        }
+        return mutated.toString();
+    }
+
+    private static PropertyDTO card(Long id, String city, String state) {
+        PropertyDTO card = new PropertyDTO();
+        card.setPropertyId(id);
+        card.setCity(city);
+        card.setState(state);
+        return card;
+    }
+}
@@ -0,0 +1,76 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.PropertySearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ListingFacetIndexTest {
+
+    private final ListingFacetIndex index = new ListingFacetIndex();
+
+    @Test
+    public void counts_leaveOutEachFacetsOwnFilter() {
+        index.rebuild(List.of(
+                card(1L, "Pune", "Double", true, 6000, "WiFi, AC"),
+                card(2L, "Pune", "Single", false, 9000, "WiFi"),
+                card(3L, "Mumbai", "Double", true, 15000, "Gym")));
+
+        PropertySearchCriteria criteria = new PropertySearchCriteria();
+        criteria.setCity("pune");
+        Map<String, Map<String, Integer>> facets = index.counts(criteria, null);
+
+        // Other cities stay visible while a city is selected
+        assertEquals(Map.of("Pune", 2, "Mumbai", 1), facets.get(ListingFacetIndex.CITY));
+        assertEquals(Map.of("Double", 1, "Single", 1), facets.get(ListingFacetIndex.SHARING_TYPE));
+        assertEquals(Map.of("WiFi", 2, "AC", 1), facets.get(ListingFacetIndex.AMENITIES));
+        assertEquals(Map.of("5000-7999", 1, "8000-11999", 1), facets.get(ListingFacetIndex.RENT));
+    }
+
+    @Test
+    public void counts_treatSelectedAmenitiesAsConjunctive() {
+        index.rebuild(List.of(
+                card(1L, "Pune", "Double", true, 6000, "Wi-Fi, A/C"),
+                card(2L, "Pune", "Single", false, 9000, "wifi")));
+
+        PropertySearchCriteria criteria = new PropertySearchCriteria();
+        criteria.setAmenities("wifi,ac");
+        Map<String, Map<String, Integer>> facets = index.counts(criteria, null);
+
+        assertEquals(Map.of("Pune", 1), facets.get(ListingFacetIndex.CITY));
+        assertEquals(Map.of("WiFi", 1, "AC", 1), facets.get(ListingFacetIndex.AMENITIES));
+    }
+
+    @Test
+    public void remove_updatesCounts() {
+        index.rebuild(List.of(
+                card(1L, "Pune", "Double", true, 6000, "WiFi"),
+                card(2L, "Mumbai", "Double", true, 7000, "WiFi")));
+
+        index.remove(2L);
+        Map<String, Integer> cities = index.counts(new PropertySearchCriteria(), null).get(ListingFacetIndex.CITY);
+
+        assertEquals(Map.of("Pune", 1), cities);
+        assertFalse(cities.containsKey("Mumbai"));
+    }
+
+    private static PropertyDTO card(Long id, String city, String sharingType, boolean food, double rent,
+                                    String amenities) {
+        PropertyDTO card = new PropertyDTO();
+        card.setPropertyId(id);
+        card.setCity(city);
+        card.setState("Maharashtra");
+        card.setSharingType(sharingType);
+        card.setFoodIncluded(food);
+        card.setRentAmount(rent);
+        card.setAvailableBeds(1);
+        card.setAmenities(amenities);
+        card.setAmenityMask(AmenityDictionary.toMask(amenities));
+        return card;
+    }
+}
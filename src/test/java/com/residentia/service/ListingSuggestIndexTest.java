@@ -0,0 +1,62 @@
+package com.residentia.service;
+
+import com.residentia.dto.PropertyDTO;
+import com.residentia.dto.SuggestionDTO;
+import com.residentia.entity.Property;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListingSuggestIndexTest {
+
+    private final ListingSuggestIndex index = new ListingSuggestIndex();
+
+    @Test
+    public void suggest_ranksByListingCountAndMatchesInnerWords() {
+        index.rebuild(List.of(
+                card(1L, "Pune", "Kothrud Comfort PG", "12, Paud Road, Kothrud, Pune"),
+                card(2L, "Pune", "Koregaon Stay", "5, Lane 7, Koregaon Park, Pune"),
+                card(3L, "Navi Mumbai", "Sea Breeze PG", "Sector 17, Vashi, Navi Mumbai")));
+
+        assertEquals(List.of("Koregaon Park", "Kothrud", "Koregaon Stay", "Kothrud Comfort PG"),
+                texts(index.suggest("ko", 10)));
+        assertEquals(List.of("Pune"), texts(index.suggest("pu", 10)));
+        assertEquals(2, index.suggest("pu", 10).get(0).getCount());
+        assertEquals(List.of("Navi Mumbai"), texts(index.suggest("mum", 10)));
+    }
+
+    @Test
+    public void index_updatesCountsAndDropsUnusedTerms() {
+        index.rebuild(List.of(
+                card(1L, "Pune", "Kothrud Comfort PG", "Kothrud"),
+                card(2L, "Pune", "Koregaon Stay", "Koregaon Park")));
+
+        index.remove(1L);
+        assertEquals(List.of("Koregaon Park", "Koregaon Stay"), texts(index.suggest("ko", 10)));
+        assertEquals(1, index.suggest("pune", 10).get(0).getCount());
+
+        Property moved = new Property();
+        moved.setId(2L);
+        index.index(moved, card(2L, "Pimpri", "Koregaon Stay", "Koregaon Park"));
+        assertTrue(index.suggest("pune", 10).isEmpty());
+        assertEquals(List.of("Pimpri"), texts(index.suggest("pi", 10)));
+    }
+
+    private static PropertyDTO card(Long id, String city, String name, String address) {
+        PropertyDTO card = new PropertyDTO();
+        card.setPropertyId(id);
+        card.setCity(city);
+        card.setState("Maharashtra");
+        card.setPropertyName(name);
+        card.setAddress(address);
+        return card;
+    }
+
+    private static List<String> texts(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,73 @@
+package com.residentia.service;
+
+import com.residentia.entity.Property;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListingTextIndexTest {
+
+    private final ListingTextIndex index = new ListingTextIndex();
+
+    @Test
+    public void search_ranksNameMatchesAboveDescriptionMatches() {
+        index.index(property(1L, "Green Valley PG", "Quiet rooms near the metro", "WiFi"), null);
+        index.index(property(2L, "Sunrise Residency", "Green surroundings and garden", "WiFi, AC"), null);
+        index.index(property(3L, "City Hostel", "Close to offices", "Laundry"), null);
+
+        List<Long> ids = ids(index.search("green", id -> true, null, 10));
+
+        assertEquals(List.of(1L, 2L), ids);
+    }
+
+    @Test
+    public void search_foldsCaseAccentsAndPlurals() {
+        index.index(property(1L, "Café Residency", "Spacious ROOM with attached bath", "Laundry"), null);
+
+        assertEquals(List.of(1L), ids(index.search("cafe rooms", id -> true, null, 10)));
+    }
+
+    @Test
+    public void search_appliesFilterAndSeekCursor() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(property(id, "PG " + id, "wifi", "WiFi"), null);
+        }
+
+        List<ListingTextIndex.Hit> firstPage = index.search("wifi", id -> id != 3L, null, 2);
+        List<ListingTextIndex.Hit> secondPage = index.search("wifi", id -> id != 3L, firstPage.get(1), 2);
+
+        assertEquals(List.of(1L, 2L), ids(firstPage));
+        assertEquals(List.of(4L, 5L), ids(secondPage));
+    }
+
+    @Test
+    public void remove_dropsListingFromResults() {
+        index.index(property(1L, "Lake View PG", "", "Gym"), null);
+        index.index(property(2L, "Lake Side PG", "", "Gym"), null);
+
+        index.remove(1L);
+
+        assertEquals(List.of(2L), ids(index.search("lake", id -> true, null, 10)));
+        assertTrue(index.search("view", id -> true, null, 10).isEmpty());
+    }
+
+    private static Property property(Long id, String name, String description, String amenities) {
+        Property property = new Property();
+        property.setId(id);
+        property.setPropertyName(name);
+        property.setDescription(description);
+        property.setAmenities(amenities);
+        property.setAddress("MG Road");
+        property.setCity("Pune");
+        property.setStatus("ACTIVE");
+        return property;
+    }
+
+    private static List<Long> ids(List<ListingTextIndex.Hit> hits) {
+        return hits.stream().map(ListingTextIndex.Hit::getPropertyId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,273 @@
+package com.residentia.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private MailDispatcher dispatcher;
+
+    @AfterEach
+    public void stopDispatcher() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void send_deliversQueuedMessagesAndRecordsMetrics() throws Exception {
+        JavaMailSenderImpl sender = sender(greenMail.getSmtp().getPort());
+        dispatcher = start(sender, 1000.0, 100, 3);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(dispatcher.submit(message(sender, "tenant" + i + "@example.com", "Booking #" + i)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(5, received.length);
+        assertEquals("Booking #0", received[0].getSubject());
+        assertEquals(5.0, registry.counter("mail.dispatch.sent").count());
+        assertEquals(5, registry.timer("mail.dispatch.latency").count());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    public void send_isPacedByTheTokenBucket() throws Exception {
+        JavaMailSenderImpl sender = sender(greenMail.getSmtp().getPort());
+        // One message straight away, then one every 100 ms
+        dispatcher = start(sender, 10.0, 1, 3);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(dispatcher.submit(message(sender, "owner@example.com", "Paced " + i)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(280));
+        assertEquals(4, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    public void send_retriesUnreachableServerThenFails() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        JavaMailSenderImpl sender = sender(closedPort);
+        dispatcher = start(sender, 1000.0, 100, 3);
+
+        MailSendException e = assertThrows(MailSendException.class,
+                () -> dispatcher.send(message(sender, "tenant@example.com", "Unreachable")));
+
+        assertTrue(e.getMessage().startsWith("Mail could not be sent"));
+        assertEquals(2.0, registry.counter("mail.dispatch.retried").count());
+        assertEquals(1.0, registry.counter("mail.dispatch.failed").count());
+    }
+
+    @Test
+    public void send_retriesTemporaryReplies() throws Exception {
+        try (StubSmtpServer server = new StubSmtpServer()) {
+            server.mailReplies.add("421 4.7.0 Try again later, closing connection");
+            server.rcptReplies.add("451 4.7.1 Rate limit exceeded");
+            JavaMailSenderImpl sender = sender(server.getPort());
+            dispatcher = start(sender, 1000.0, 100, 3);
+
+            dispatcher.send(message(sender, "tenant@example.com", "Throttled"));
+
+            assertEquals(1, server.delivered.get());
+            assertEquals(2.0, registry.counter("mail.dispatch.retried").count());
+            assertEquals(1.0, registry.counter("mail.dispatch.sent").count());
+        }
+    }
+
+    @Test
+    public void send_failsAtOnceOnPermanentReplies() throws Exception {
+        try (StubSmtpServer server = new StubSmtpServer()) {
+            server.rcptReplies.add("550 5.1.1 No such user");
+            JavaMailSenderImpl sender = sender(server.getPort());
+            dispatcher = start(sender, 1000.0, 100, 3);
+
+            assertThrows(MailSendException.class,
+                    () -> dispatcher.send(message(sender, "nobody@example.com", "Rejected")));
+
+            assertEquals(0, server.delivered.get());
+            assertEquals(0.0, registry.counter("mail.dispatch.retried").count());
+            assertEquals(1.0, registry.counter("mail.dispatch.failed").count());
+        }
+    }
+
+    @Test
+    public void send_dropsMessagesStillQueuedWhenTheWaitTimesOut() throws Exception {
+        JavaMailSenderImpl sender = sender(greenMail.getSmtp().getPort());
+        // The first message takes the only token; the next is due after 500 ms
+        dispatcher = start(sender, 2.0, 1, 3, 100);
+
+        dispatcher.submit(message(sender, "tenant@example.com", "First")).get(10, TimeUnit.SECONDS);
+        MailSendException e = assertThrows(MailSendException.class,
+                () -> dispatcher.send(message(sender, "tenant@example.com", "Timed out")));
+        assertTrue(e.getMessage().startsWith("Mail was not sent within"));
+
+        // A retry by the caller is the only copy that goes out
+        dispatcher.submit(message(sender, "tenant@example.com", "Retried")).get(10, TimeUnit.SECONDS);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("Retried", received[1].getSubject());
+        assertEquals(2.0, registry.counter("mail.dispatch.sent").count());
+    }
+
+    @Test
+    public void tokenBucket_refillsAtItsRate() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(2.0, 2, now::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, bucket.tryAcquire());
+        // Never more than the burst, however long it was idle
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    private MailDispatcher start(JavaMailSenderImpl sender, double ratePerSecond, int burst, int maxAttempts) {
+        return start(sender, ratePerSecond, burst, maxAttempts, 10000);
+    }
+
+    private MailDispatcher start(JavaMailSenderImpl sender, double ratePerSecond, int burst, int maxAttempts,
+                                 long sendTimeoutMillis) {
+        MailDispatcher started = new MailDispatcher(sender, registry, 100, 10, ratePerSecond, burst,
+                maxAttempts, 10, 30000, sendTimeoutMillis);
+        started.start();
+        return started;
+    }
+
+    private static JavaMailSenderImpl sender(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(port);
+        sender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        sender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+        return sender;
+    }
+
+    /**
+     * Minimal SMTP server whose MAIL and RCPT replies can be scripted; unscripted
+     * commands succeed
+     */
+    private static final class StubSmtpServer implements AutoCloseable {
+        private final ServerSocket socket = new ServerSocket(0);
+        private final Queue<String> mailReplies = new ConcurrentLinkedQueue<>();
+        private final Queue<String> rcptReplies = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final Thread thread = new Thread(this::serve, "stub-smtp");
+
+        StubSmtpServer() throws IOException {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        private void serve() {
+            while (!socket.isClosed()) {
+                try (Socket client = socket.accept();
+                     BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                     Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII)) {
+                    reply(out, "220 stub ESMTP");
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                        String response = switch (command) {
+                            case "MAIL" -> scripted(mailReplies, "250 OK");
+                            case "RCPT" -> scripted(rcptReplies, "250 OK");
+                            case "DATA" -> {
+                                reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                                while ((line = in.readLine()) != null && !line.equals(".")) {
+                                    // Message body is not kept
+                                }
+                                delivered.incrementAndGet();
+                                yield "250 OK";
+                            }
+                            case "QUIT" -> "221 Bye";
+                            default -> "250 OK";
+                        };
+                        reply(out, response);
+                        if (response.startsWith("221") || response.startsWith("421")) {
+                            break;
+                        }
+                    }
+                } catch (IOException e) {
+                    // Client went away or the server was closed
+                }
+            }
+        }
+
+        private static String scripted(Queue<String> replies, String otherwise) {
+            String reply = replies.poll();
+            return reply != null ? reply : otherwise;
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl sender, String to, String subject) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("noreply@residentia.test");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText("Hello");
+        return message;
+    }
+}